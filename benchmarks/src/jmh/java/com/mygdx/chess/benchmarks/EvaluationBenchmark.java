@@ -0,0 +1,48 @@
+package com.mygdx.chess.benchmarks;
+
+import com.mygdx.chess.bitboard.Fen;
+import com.mygdx.chess.bitboard.MoveGenerator;
+import com.mygdx.chess.bitboard.MoveList;
+import com.mygdx.chess.bitboard.Position;
+import com.mygdx.chess.search.Evaluation;
+import com.mygdx.chess.search.Evaluator;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Static evaluations per second, as the search sees them: each call plays
+ * one of the legal moves, evaluates and takes it back, so the incremental
+ * piece-square sum and the cached pawn and king terms are exercised the
+ * way they are at the leaves.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class EvaluationBenchmark {
+
+    @Param({"OPENING", "MIDDLEGAME", "ENDGAME"})
+    public Fixtures.Phase phase;
+
+    private final Evaluator evaluator = new Evaluation();
+    private final MoveList moves = new MoveList();
+    private Position position;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        position = Fen.load(phase.fen);
+        MoveGenerator.generateLegal(position, moves);
+        evaluator.evaluate(position);
+    }
+
+    @Benchmark
+    public int evaluate() {
+        int move = moves.get(next);
+        next = next + 1 == moves.size() ? 0 : next + 1;
+        position.makeMove(move);
+        int score = evaluator.evaluate(position);
+        position.unmakeMove(move);
+        return score;
+    }
+}
@@ -0,0 +1,33 @@
+package com.mygdx.chess.benchmarks;
+
+import com.mygdx.chess.factory.BoardModelFactory;
+import com.mygdx.chess.model.IBoardModel;
+
+/**
+ * Fixed positions shared by the benchmarks. Boards are built without
+ * touching textures, so everything runs headless.
+ */
+public final class Fixtures {
+
+    public enum Phase {
+        // Ruy Lopez after 3...a6
+        OPENING("r1bqkbnr/1ppp1ppp/p1n5/1B2p3/4P3/5N2/PPPP1PPP/RNBQK2R w KQkq - 0 4"),
+        // "Kiwipete": pins, checks, castling and en passant all in reach
+        MIDDLEGAME("r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq - 0 1"),
+        // rook and pawns
+        ENDGAME("8/2p5/3p4/KP5r/1R3p1k/8/4P1P1/8 w - - 0 1");
+
+        final String fen;
+
+        Phase(String fen) {
+            this.fen = fen;
+        }
+    }
+
+    private Fixtures() { /* no-op */ }
+
+    /** A board model whose pieces and logic both hold the position in {@code fen}. */
+    static IBoardModel board(String fen) {
+        return BoardModelFactory.createFromFen(fen, false);
+    }
+}
@@ -0,0 +1,84 @@
+package com.mygdx.chess.benchmarks;
+
+import com.mygdx.chess.actors.ChessPiece;
+import com.mygdx.chess.bitboard.MoveList;
+import com.mygdx.chess.logic.GameLogic;
+import com.mygdx.chess.model.IBoardModel;
+import com.mygdx.chess.model.PieceColor;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Rule queries the UI and bot make on every move, each measured over a
+ * whole position: all pieces of the side to move, or all 64 squares.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class GameLogicBenchmark {
+
+    @Param({"OPENING", "MIDDLEGAME", "ENDGAME"})
+    public Fixtures.Phase phase;
+
+    private GameLogic logic;
+    private List<ChessPiece> pieces;
+    private List<ChessPiece> movers;
+    private PieceColor side;
+    private final MoveList moves = new MoveList();
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        IBoardModel model = Fixtures.board(phase.fen);
+        logic = model.getGameLogic();
+        pieces = model.getPieces();
+        side = logic.getSideToMove();
+        movers = new ArrayList<>();
+        for (ChessPiece p : pieces) {
+            if (p.getColor() == side) movers.add(p);
+        }
+    }
+
+    @Benchmark
+    public int possibleMoves() {
+        int total = 0;
+        for (ChessPiece p : movers) {
+            logic.getPossibleMoves(p, moves);
+            total += moves.size();
+        }
+        return total;
+    }
+
+    @Benchmark
+    public int validMoves() {
+        int valid = 0;
+        for (ChessPiece p : movers) {
+            for (int y = 0; y < 8; y++) {
+                for (int x = 0; x < 8; x++) {
+                    if (logic.isValidMove(p, x, y, pieces)) valid++;
+                }
+            }
+        }
+        return valid;
+    }
+
+    @Benchmark
+    public int attackedSquares() {
+        int attacked = 0;
+        for (int y = 0; y < 8; y++) {
+            for (int x = 0; x < 8; x++) {
+                if (logic.isSquareAttacked(x, y, side, pieces)) attacked++;
+            }
+        }
+        return attacked;
+    }
+
+    @Benchmark
+    public void terminalChecks(Blackhole bh) {
+        bh.consume(logic.isCheckmate(side, pieces));
+        bh.consume(logic.isStalemate(side, pieces));
+    }
+}
@@ -0,0 +1,39 @@
+package com.mygdx.chess.benchmarks;
+
+import com.mygdx.chess.memento.GameMemento;
+import com.mygdx.chess.model.IBoardModel;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of the undo snapshot taken on every move and of restoring it.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class MementoBenchmark {
+
+    @Param({"OPENING", "MIDDLEGAME", "ENDGAME"})
+    public Fixtures.Phase phase;
+
+    private IBoardModel model;
+    private GameMemento memento;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        model = Fixtures.board(phase.fen);
+        memento = model.createMemento();
+    }
+
+    @Benchmark
+    public GameMemento create() {
+        return model.createMemento();
+    }
+
+    @Benchmark
+    public IBoardModel restore() {
+        model.restoreMemento(memento);
+        return model;
+    }
+}
@@ -0,0 +1,57 @@
+package com.mygdx.chess.benchmarks;
+
+import com.mygdx.chess.bitboard.Fen;
+import com.mygdx.chess.bitboard.Position;
+import com.mygdx.chess.search.ParallelSearch;
+import com.mygdx.chess.search.SearchLimits;
+import com.mygdx.chess.search.TranspositionTable;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Fixed-depth searches of the built-in engine, each starting from an
+ * empty transposition table as at the start of a game. With more than one
+ * thread the helpers only fill the shared table, so the depth is reached
+ * sooner rather than more nodes being counted.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class SearchBenchmark {
+
+    @Param({"OPENING", "MIDDLEGAME", "ENDGAME"})
+    public Fixtures.Phase phase;
+
+    @Param({"5"})
+    public int depth;
+
+    @Param({"1", "4"})
+    public int threads;
+
+    private Position position;
+    private TranspositionTable tt;
+    private ParallelSearch search;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        position = Fen.load(phase.fen);
+        tt = new TranspositionTable(TranspositionTable.DEFAULT_MEGABYTES);
+        search = new ParallelSearch(tt, threads);
+    }
+
+    @Setup(Level.Invocation)
+    public void clearTable() {
+        tt.clear();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        search.close();
+    }
+
+    @Benchmark
+    public int fixedDepth() {
+        return search.search(position, SearchLimits.depth(depth));
+    }
+}
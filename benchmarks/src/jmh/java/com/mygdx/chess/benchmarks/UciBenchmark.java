@@ -0,0 +1,97 @@
+package com.mygdx.chess.benchmarks;
+
+import com.mygdx.chess.bitboard.Fen;
+import com.mygdx.chess.bitboard.MoveList;
+import com.mygdx.chess.bitboard.Position;
+import com.mygdx.chess.engine.Uci;
+import com.mygdx.chess.engine.UciEvent;
+import com.mygdx.chess.engine.UciParser;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Engine protocol handling: scanning a search's output for the bestmove
+ * line, parsing all of it from the engine's bytes (run with {@code -prof gc}
+ * to see that this allocates nothing), replaying a game's move list onto a position, and building the
+ * position command sent before each search.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class UciBenchmark {
+
+    // what a short search prints before answering
+    private static final String[] SEARCH_OUTPUT = {
+        "info string NNUE evaluation using nn-b1a57edbea57.nnue enabled",
+        "info depth 1 seldepth 1 multipv 1 score cp 18 nodes 20 nps 20000 hashfull 0 tbhits 0 time 1 pv e2e4",
+        "info depth 2 seldepth 2 multipv 1 score cp 46 nodes 66 nps 66000 hashfull 0 tbhits 0 time 1 pv d2d4",
+        "info depth 3 seldepth 2 multipv 1 score cp 51 nodes 120 nps 120000 hashfull 0 tbhits 0 time 1 pv e2e4",
+        "info depth 4 seldepth 5 multipv 1 score cp 34 nodes 711 nps 355500 hashfull 0 tbhits 0 time 2 pv e2e4 e7e5 g1f3",
+        "info depth 5 seldepth 6 multipv 1 score cp 28 nodes 1571 nps 523666 hashfull 0 tbhits 0 time 3 pv e2e4 e7e5 g1f3 b8c6",
+        "info depth 6 seldepth 7 multipv 1 score cp 30 nodes 3826 nps 765200 hashfull 1 tbhits 0 time 5 pv e2e4 c7c5 g1f3 d7d6 d2d4",
+        "info depth 7 seldepth 8 multipv 1 score cp 31 upperbound nodes 6230 nps 890000 hashfull 2 tbhits 0 time 7 pv e2e4 c7c5",
+        "info depth 8 seldepth 10 multipv 1 score cp 29 nodes 12004 nps 1000333 hashfull 4 tbhits 0 time 12 pv e2e4 e7e5 g1f3 b8c6 f1b5",
+        "bestmove e2e4 ponder e7e5"
+    };
+
+    // Ruy Lopez, Chigorin variation, including castling
+    private static final String[] GAME = (
+        "e2e4 e7e5 g1f3 b8c6 f1b5 a7a6 b5a4 g8f6 e1g1 f8e7 f1e1 b7b5 "
+            + "a4b3 d7d6 c2c3 e8g8 h2h3 c6a5 b3c2 c7c5 d2d4 d8c7").split(" ");
+
+    private final Position position = new Position();
+    private final Position played = new Position();
+    private final MoveList history = new MoveList();
+    private ByteArrayInputStream output;
+    private UciParser parser;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        Fen.load(Fen.START, played);
+        for (String uci : GAME) {
+            int move = Uci.parseMove(played, uci);
+            played.makeMove(move);
+            history.add(move);
+        }
+        output = new ByteArrayInputStream((String.join("\n", SEARCH_OUTPUT) + "\n").getBytes(StandardCharsets.US_ASCII));
+        parser = new UciParser(output);
+    }
+
+    @Benchmark
+    public String bestMove() {
+        for (String line : SEARCH_OUTPUT) {
+            if (line.startsWith("bestmove")) {
+                return Uci.bestMove(line);
+            }
+        }
+        return null;
+    }
+
+    @Benchmark
+    public void parseSearchOutput(Blackhole bh) throws IOException {
+        output.reset();
+        for (UciEvent event; (event = parser.next()) != null; ) {
+            bh.consume(event.getType() == UciEvent.Type.BESTMOVE ? event.getMove() : event.getInfo().getScore());
+        }
+    }
+
+    @Benchmark
+    public void replayGame(Blackhole bh) {
+        Fen.load(Fen.START, position);
+        for (String uci : GAME) {
+            int move = Uci.parseMove(position, uci);
+            position.makeMove(move);
+        }
+        bh.consume(position.getKey());
+    }
+
+    @Benchmark
+    public String positionCommand() {
+        return Uci.position(played, history);
+    }
+}
@@ -4,14 +4,20 @@ package com.mygdx.chess;
 import com.badlogic.gdx.Game;
 import com.badlogic.gdx.Gdx;
 import com.badlogic.gdx.graphics.g2d.SpriteBatch;
+import com.mygdx.chess.engine.EnginePool;
 import com.mygdx.chess.proxy.TextureProxy;
+import com.mygdx.chess.screens.BotGameScreen;
 import com.mygdx.chess.screens.MainMenuScreen;
 
 /**
  * The main entry point for the LibGDX chess game.
  */
 public class ChessGame extends Game {
+    // one game against the bot at a time
+    private static final int ENGINES = 1;
+
     private SpriteBatch batch;
+    private EnginePool engines;
 
     @Override
     public void create() {
@@ -25,9 +31,16 @@ public class ChessGame extends Game {
         super.render(); // delegate to current screen's render method
     }
 
+    /** Bot engines, started on first use and kept warm between games. */
+    public EnginePool getEngines() {
+        if (engines == null) engines = new EnginePool(ENGINES, BotGameScreen::createEngine);
+        return engines;
+    }
+
     @Override
     public void dispose() {
         TextureProxy.disposeAll(); // PROXY: after running dispose all textures.
+        if (engines != null) engines.close();
     
         if (batch != null) batch.dispose();
         // Screens and their assets will be disposed by LibGDX when setScreen is changed or on exit
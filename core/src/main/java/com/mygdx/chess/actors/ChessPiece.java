@@ -3,6 +3,8 @@ package com.mygdx.chess.actors;
 import com.badlogic.gdx.graphics.Texture;
 import com.badlogic.gdx.graphics.g2d.SpriteBatch;
 import com.mygdx.chess.decorator.PieceDecorator;
+import com.mygdx.chess.model.PieceColor;
+import com.mygdx.chess.model.PieceType;
 import com.mygdx.chess.proxy.TextureProxy;
 
 import java.util.ArrayList;
@@ -13,11 +15,11 @@ import java.util.Objects;
  * Represents a single chess piece on the board.
  */
 public class ChessPiece implements Cloneable {
-    private final String color;
-    private final String type;
+    private final PieceColor color;
+    private final PieceType type;
     private int xPos;
     private int yPos;
-    private final Texture texture;
+    private Texture texture;
     private boolean hasMoved;
 
 
@@ -26,13 +28,12 @@ public class ChessPiece implements Cloneable {
 
 
 
-    public ChessPiece(String color, String type, int xPos, int yPos) {
+    public ChessPiece(PieceColor color, PieceType type, int xPos, int yPos) {
         this.color = color;
         this.type = type;
         this.xPos = xPos;
         this.yPos = yPos;
         this.hasMoved = false;
-        this.texture = TextureProxy.get("images/" + color + "_" + type + ".png");
     }
 
     public void addDecorator(PieceDecorator decorator) {
@@ -71,11 +72,19 @@ public class ChessPiece implements Cloneable {
         float posX = dx * squareSize + offset;
         float posY = dy * squareSize + offset;
 
-        batch.draw(texture, posX, posY, pieceSize, pieceSize);
+        batch.draw(getTexture(), posX, posY, pieceSize, pieceSize);
     }
 
     public void dispose() {}
 
+    /** Loaded on first draw, so pieces can exist without a GL context. */
+    private Texture getTexture() {
+        if (texture == null) {
+            texture = TextureProxy.get("images/" + color.assetName() + "_" + type.assetName() + ".png");
+        }
+        return texture;
+    }
+
     @Override
     public ChessPiece clone() {
         try {
@@ -94,8 +103,8 @@ public class ChessPiece implements Cloneable {
         if (!(o instanceof ChessPiece)) return false;
         ChessPiece that = (ChessPiece) o;
         return xPos == that.xPos && yPos == that.yPos
-            && Objects.equals(color, that.color)
-            && Objects.equals(type, that.type);
+            && color == that.color
+            && type == that.type;
     }
 
     @Override
@@ -111,10 +120,10 @@ public class ChessPiece implements Cloneable {
         }
     }
 
-    public String getColor() { return color; }
-    public String getType()  { return type;  }
-    public int getXPos()     { return xPos;  }
-    public int getYPos()     { return yPos;  }
-    public boolean hasMoved(){ return hasMoved; }
+    public PieceColor getColor() { return color; }
+    public PieceType getType()   { return type;  }
+    public int getXPos()         { return xPos;  }
+    public int getYPos()         { return yPos;  }
+    public boolean hasMoved()    { return hasMoved; }
     public void setHasMoved(boolean moved) { hasMoved = moved; }
 }
@@ -0,0 +1,188 @@
+package com.mygdx.chess.bitboard;
+
+import static com.mygdx.chess.bitboard.Bitboards.*;
+
+/**
+ * Attack sets per piece type, expressed as bitboards.
+ * Knight, king and pawn attacks are precomputed per square; rook and
+ * bishop rays come from magic-bitboard lookup tables built once at
+ * class load, so every query is a handful of table reads.
+ */
+public final class Attacks {
+    private static final long NOT_A  = ~FILE_A;
+    private static final long NOT_H  = ~FILE_H;
+    private static final long NOT_AB = ~(FILE_A | FILE_B);
+    private static final long NOT_GH = ~(FILE_G | FILE_H);
+
+    private static final int[] ROOK_DF   = {1, -1, 0, 0};
+    private static final int[] ROOK_DR   = {0, 0, 1, -1};
+    private static final int[] BISHOP_DF = {1, 1, -1, -1};
+    private static final int[] BISHOP_DR = {1, -1, 1, -1};
+
+    // Magic multipliers found offline with a fixed-seed sparse random search
+    private static final long[] ROOK_MAGIC = {
+        0x008000908064C000L, 0x0040200040001000L, 0x0180100080A0010AL,
+        0x8880041000800800L, 0x1200100201200804L, 0x0200020004011008L,
+        0x2180010000800600L, 0x0200005088210204L, 0x0400800040008021L,
+        0x0400400020005000L, 0x8240801000200080L, 0x8611001004200900L,
+        0x008180800C001800L, 0x0100800200800400L, 0x0A02000102000408L,
+        0x8020802300104280L, 0x0080004000402000L, 0xE010104000402000L,
+        0x0800808010002000L, 0xA280210008100100L, 0x0001818014000800L,
+        0xA002010100080400L, 0x0080240001020870L, 0x0001020004048845L,
+        0x0081826280004004L, 0x2020810900284000L, 0x0200100080802000L,
+        0x0200080080100080L, 0x8083080100100500L, 0x4406000901000400L,
+        0x0005020080800100L, 0x0090204200008114L, 0x0010400094800420L,
+        0x0900804000802002L, 0x0201001841002000L, 0x4100080080801000L,
+        0x4540040080800800L, 0x0002001004040020L, 0x0281195814001002L,
+        0x1240800040800100L, 0x0880042000524004L, 0x02C080410206002CL,
+        0x0801200241050010L, 0x8400080010008080L, 0x0008000500090010L,
+        0x0082009084020008L, 0x4012000108020004L, 0x9000104D08860004L,
+        0x2004204114800100L, 0x0148802112400300L, 0x0202842000100880L,
+        0x001B080080900080L, 0x001A002008100600L, 0x0004008004020080L,
+        0x5181000600040300L, 0x0000044401128A00L, 0x8044110480002441L,
+        0x2008110084402202L, 0x90806005090010C1L, 0x000420310A004A42L,
+        0x0023001004020801L, 0x0882001008040102L, 0x000230088118020CL,
+        0x0000019025040042L
+    };
+    private static final long[] BISHOP_MAGIC = {
+        0x0045010808008680L, 0x2002080204004898L, 0x0210009A10400006L,
+        0x0824050200810200L, 0x0006061105004090L, 0x00010108C0000000L,
+        0x0814040282104004L, 0x0012012201106800L, 0x10823014100C1040L,
+        0x0080C2088802808CL, 0x0281108410404000L, 0x0101212041826200L,
+        0x0020141028221058L, 0x2201020202200202L, 0x000082A801482000L,
+        0x0000008401411044L, 0x0007103014300404L, 0x0002091110010100L,
+        0x42140012040C0808L, 0x0800808802004020L, 0x90C4004210140000L,
+        0x0800200900A01000L, 0x00D0400201108810L, 0x80820183814412A0L,
+        0x00A01008202202B4L, 0x01C2021A09500402L, 0x0084440208042400L,
+        0x800400400C090100L, 0xBA10040010802100L, 0xD182009006005000L,
+        0x5011021001009004L, 0x0020420200510400L, 0x0292104000468800L,
+        0x00043009091C0500L, 0x0280441000020025L, 0x0042820080080080L,
+        0x0440101010010040L, 0x1000900100808080L, 0x0108108120089800L,
+        0x0044010200012682L, 0xC002500420900400L, 0x0040482210710800L,
+        0x0002060024000200L, 0x0281020A44000800L, 0xA0021200A4000200L,
+        0x0001301000840840L, 0x2868500108444220L, 0x0004111041000200L,
+        0x8044020842080200L, 0x0000220104210200L, 0x0000021201044000L,
+        0x0000280884040028L, 0x4012114010858003L, 0x0000081004082B88L,
+        0x3892700508208002L, 0x00220A041B060400L, 0x0812020284014881L,
+        0x010434A282103100L, 0x0490400824020800L, 0x4A20002C00208800L,
+        0x000000A011020200L, 0x4002940A02482202L, 0x5100100202140406L,
+        0x02102000840540C1L
+    };
+
+    private static final long[] KNIGHT = new long[64];
+    private static final long[] KING   = new long[64];
+    private static final long[][] PAWN = new long[2][64];
+
+    private static final long[] ROOK_MASK     = new long[64];
+    private static final long[] BISHOP_MASK   = new long[64];
+    private static final int[]  ROOK_SHIFT    = new int[64];
+    private static final int[]  BISHOP_SHIFT  = new int[64];
+    private static final int[]  ROOK_OFFSET   = new int[64];
+    private static final int[]  BISHOP_OFFSET = new int[64];
+    private static final long[] ROOK_TABLE;
+    private static final long[] BISHOP_TABLE;
+
+    static {
+        for (int sq = 0; sq < 64; sq++) {
+            long b = bit(sq);
+            KNIGHT[sq] = ((b << 17) & NOT_A) | ((b << 15) & NOT_H)
+                | ((b << 10) & NOT_AB) | ((b << 6) & NOT_GH)
+                | ((b >>> 17) & NOT_H) | ((b >>> 15) & NOT_A)
+                | ((b >>> 10) & NOT_GH) | ((b >>> 6) & NOT_AB);
+            KING[sq] = (b << 8) | (b >>> 8)
+                | (((b << 1) | (b << 9) | (b >>> 7)) & NOT_A)
+                | (((b >>> 1) | (b >>> 9) | (b << 7)) & NOT_H);
+            PAWN[Position.WHITE][sq] = ((b << 7) & NOT_H) | ((b << 9) & NOT_A);
+            PAWN[Position.BLACK][sq] = ((b >>> 9) & NOT_H) | ((b >>> 7) & NOT_A);
+        }
+        ROOK_TABLE   = initMagics(ROOK_MAGIC, ROOK_MASK, ROOK_SHIFT, ROOK_OFFSET, ROOK_DF, ROOK_DR);
+        BISHOP_TABLE = initMagics(BISHOP_MAGIC, BISHOP_MASK, BISHOP_SHIFT, BISHOP_OFFSET, BISHOP_DF, BISHOP_DR);
+    }
+
+    private Attacks() { /* no-op */ }
+
+    public static long knight(int sq) {
+        return KNIGHT[sq];
+    }
+
+    public static long king(int sq) {
+        return KING[sq];
+    }
+
+    /** Squares a pawn of {@code color} standing on {@code sq} attacks. */
+    public static long pawn(int color, int sq) {
+        return PAWN[color][sq];
+    }
+
+    public static long rook(int sq, long occupied) {
+        return ROOK_TABLE[ROOK_OFFSET[sq]
+            + (int) (((occupied & ROOK_MASK[sq]) * ROOK_MAGIC[sq]) >>> ROOK_SHIFT[sq])];
+    }
+
+    public static long bishop(int sq, long occupied) {
+        return BISHOP_TABLE[BISHOP_OFFSET[sq]
+            + (int) (((occupied & BISHOP_MASK[sq]) * BISHOP_MAGIC[sq]) >>> BISHOP_SHIFT[sq])];
+    }
+
+    public static long queen(int sq, long occupied) {
+        return rook(sq, occupied) | bishop(sq, occupied);
+    }
+
+    /** Attack set of a piece of the given type and colour on {@code sq}. */
+    public static long of(int type, int color, int sq, long occupied) {
+        switch (type) {
+            case Position.PAWN:   return pawn(color, sq);
+            case Position.KNIGHT: return knight(sq);
+            case Position.BISHOP: return bishop(sq, occupied);
+            case Position.ROOK:   return rook(sq, occupied);
+            case Position.QUEEN:  return queen(sq, occupied);
+            case Position.KING:   return king(sq);
+            default:              return 0L;
+        }
+    }
+
+    /**
+     * Fills the per-square mask/shift/offset arrays and returns the flat
+     * attack table, enumerating every blocker subset of each mask.
+     */
+    private static long[] initMagics(long[] magics, long[] masks, int[] shifts, int[] offsets,
+                                     int[] df, int[] dr) {
+        int size = 0;
+        for (int sq = 0; sq < 64; sq++) {
+            long edges = ((RANK_1 | RANK_8) & ~(RANK_1 << (8 * rank(sq))))
+                | ((FILE_A | FILE_H) & ~(FILE_A << file(sq)));
+            masks[sq] = slide(sq, 0L, df, dr) & ~edges;
+            int bits = popCount(masks[sq]);
+            shifts[sq] = 64 - bits;
+            offsets[sq] = size;
+            size += 1 << bits;
+        }
+
+        long[] table = new long[size];
+        for (int sq = 0; sq < 64; sq++) {
+            long mask = masks[sq];
+            long subset = 0L;
+            do {
+                int index = (int) ((subset * magics[sq]) >>> shifts[sq]);
+                table[offsets[sq] + index] = slide(sq, subset, df, dr);
+                subset = (subset - mask) & mask;
+            } while (subset != 0);
+        }
+        return table;
+    }
+
+    private static long slide(int sq, long occupied, int[] df, int[] dr) {
+        long attacks = 0L;
+        for (int d = 0; d < df.length; d++) {
+            int f = file(sq) + df[d], r = rank(sq) + dr[d];
+            while (f >= 0 && f < 8 && r >= 0 && r < 8) {
+                long b = bit(square(f, r));
+                attacks |= b;
+                if ((occupied & b) != 0) break;
+                f += df[d];
+                r += dr[d];
+            }
+        }
+        return attacks;
+    }
+}
@@ -0,0 +1,91 @@
+package com.mygdx.chess.bitboard;
+
+/**
+ * Square numbering and mask helpers for 64-bit boards.
+ * Square index is {@code y * 8 + x}, so a1 = 0, h1 = 7 and h8 = 63,
+ * matching the (x = file, y = rank) coordinates used by ChessPiece.
+ */
+public final class Bitboards {
+    public static final long FILE_A = 0x0101010101010101L;
+    public static final long FILE_B = FILE_A << 1;
+    public static final long FILE_G = FILE_A << 6;
+    public static final long FILE_H = FILE_A << 7;
+    public static final long RANK_1 = 0xFFL;
+    public static final long RANK_2 = RANK_1 << 8;
+    public static final long RANK_7 = RANK_1 << 48;
+    public static final long RANK_8 = RANK_1 << 56;
+
+    // squares strictly between two aligned squares, 0 when not aligned
+    private static final long[][] BETWEEN = new long[64][64];
+    // full board line through two aligned squares, 0 when not aligned
+    private static final long[][] LINE = new long[64][64];
+
+    static {
+        int[] df = {1, -1, 0, 0, 1, 1, -1, -1};
+        int[] dr = {0, 0, 1, -1, 1, -1, 1, -1};
+        for (int from = 0; from < 64; from++) {
+            for (int d = 0; d < 8; d++) {
+                long ray = 0L;
+                int f = file(from) + df[d], r = rank(from) + dr[d];
+                while (f >= 0 && f < 8 && r >= 0 && r < 8) {
+                    int to = square(f, r);
+                    BETWEEN[from][to] = ray;
+                    ray |= bit(to);
+                    f += df[d];
+                    r += dr[d];
+                }
+            }
+        }
+        // directions come in opposite pairs: 0/1, 2/3, 4/7, 5/6
+        int[][] pairs = {{0, 1}, {2, 3}, {4, 7}, {5, 6}};
+        for (int from = 0; from < 64; from++) {
+            for (int[] pair : pairs) {
+                long line = bit(from);
+                for (int d : pair) {
+                    int f = file(from) + df[d], r = rank(from) + dr[d];
+                    while (f >= 0 && f < 8 && r >= 0 && r < 8) {
+                        line |= bit(square(f, r));
+                        f += df[d];
+                        r += dr[d];
+                    }
+                }
+                for (int d : pair) {
+                    int f = file(from) + df[d], r = rank(from) + dr[d];
+                    while (f >= 0 && f < 8 && r >= 0 && r < 8) {
+                        LINE[from][square(f, r)] = line;
+                        f += df[d];
+                        r += dr[d];
+                    }
+                }
+            }
+        }
+    }
+
+    private Bitboards() { /* no-op */ }
+
+    public static int square(int x, int y) { return (y << 3) | x; }
+    public static int file(int sq)         { return sq & 7; }
+    public static int rank(int sq)         { return sq >>> 3; }
+    public static long bit(int sq)         { return 1L << sq; }
+
+    /** Index of the lowest set bit; 64 for an empty board. */
+    public static int lsb(long b)          { return Long.numberOfTrailingZeros(b); }
+
+    public static int popCount(long b)     { return Long.bitCount(b); }
+
+    /**
+     * @return squares strictly between {@code from} and {@code to} when they share
+     *         a rank, file or diagonal; otherwise 0
+     */
+    public static long between(int from, int to) {
+        return BETWEEN[from][to];
+    }
+
+    /**
+     * @return every square on the rank, file or diagonal through both
+     *         squares (edge to edge); 0 when they are not aligned
+     */
+    public static long line(int a, int b) {
+        return LINE[a][b];
+    }
+}
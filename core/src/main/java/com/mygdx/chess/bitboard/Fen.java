@@ -0,0 +1,199 @@
+package com.mygdx.chess.bitboard;
+
+/**
+ * Reads and writes positions in Forsyth-Edwards Notation. Both directions
+ * work in a single pass over the text, without regular expressions or
+ * intermediate strings.
+ */
+public final class Fen {
+    public static final String START =
+        "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq - 0 1";
+
+    private static final String PIECE_CHARS = "pnbrqk";
+
+    private Fen() { /* no-op */ }
+
+    public static Position load(String fen) {
+        Position pos = new Position();
+        load(fen, pos);
+        return pos;
+    }
+
+    /**
+     * Replaces the contents of {@code pos} with the position described by
+     * {@code fen}. Only placement and side to move are required; missing
+     * castling and en passant fields default to none, missing move
+     * counters to "0 1". A castling right whose king or rook is not on its
+     * home square is dropped, as is an en passant square with no pawn that
+     * just stepped past it or none that can take.
+     *
+     * @throws IllegalArgumentException if the string is not valid FEN, or
+     *         either side has other than one king
+     */
+    public static void load(String fen, Position pos) {
+        pos.clear();
+        int n = fen.length();
+        int i = skipSpaces(fen, 0);
+
+        int x = 0, y = 7;
+        for (; i < n && fen.charAt(i) != ' '; i++) {
+            char c = fen.charAt(i);
+            if (c == '/') {
+                if (x != 8) throw new IllegalArgumentException("Bad rank in FEN: " + fen);
+                x = 0;
+                y--;
+            } else if (c >= '1' && c <= '8') {
+                x += c - '0';
+            } else {
+                int type = PIECE_CHARS.indexOf(Character.toLowerCase(c));
+                if (type < 0 || x > 7 || y < 0) {
+                    throw new IllegalArgumentException("Bad placement in FEN: " + fen);
+                }
+                int color = Character.isUpperCase(c) ? Position.WHITE : Position.BLACK;
+                pos.put(color, type, Bitboards.square(x++, y));
+            }
+        }
+        if (x != 8 || y != 0) throw new IllegalArgumentException("Bad placement in FEN: " + fen);
+        if (Long.bitCount(pos.pieces(Position.WHITE, Position.KING)) != 1
+            || Long.bitCount(pos.pieces(Position.BLACK, Position.KING)) != 1) {
+            throw new IllegalArgumentException("FEN needs one king per side: " + fen);
+        }
+
+        i = skipSpaces(fen, i);
+        char side = i < n ? fen.charAt(i++) : '?';
+        if ((side != 'w' && side != 'b') || (i < n && fen.charAt(i) != ' ')) {
+            throw new IllegalArgumentException("Missing side to move in FEN: " + fen);
+        }
+        pos.setSideToMove(side == 'w' ? Position.WHITE : Position.BLACK);
+
+        int rights = 0;
+        for (i = skipSpaces(fen, i); i < n && fen.charAt(i) != ' '; i++) {
+            switch (fen.charAt(i)) {
+                case 'K': rights |= Position.WHITE_KINGSIDE;  break;
+                case 'Q': rights |= Position.WHITE_QUEENSIDE; break;
+                case 'k': rights |= Position.BLACK_KINGSIDE;  break;
+                case 'q': rights |= Position.BLACK_QUEENSIDE; break;
+                case '-': break;
+                default: throw new IllegalArgumentException("Bad castling field in FEN: " + fen);
+            }
+        }
+        pos.setCastlingRights(rights & possibleRights(pos));
+
+        i = skipSpaces(fen, i);
+        if (i < n && fen.charAt(i) == '-') {
+            i++;
+        } else if (i < n) {
+            int us = pos.getSideToMove();
+            // behind a pawn of the side that just moved: rank 6 with white to move, 3 with black
+            char epRank = us == Position.WHITE ? '6' : '3';
+            if (i + 1 >= n || fen.charAt(i) < 'a' || fen.charAt(i) > 'h'
+                || fen.charAt(i + 1) != epRank
+                || (i + 2 < n && fen.charAt(i + 2) != ' ')) {
+                throw new IllegalArgumentException("Bad en passant field in FEN: " + fen);
+            }
+            int sq = Bitboards.square(fen.charAt(i) - 'a', fen.charAt(i + 1) - '1');
+            i += 2;
+            // the pawn that stepped past it; then the same convention as
+            // makeMove: only record it when a pawn can take
+            int pushed = us == Position.WHITE ? sq - 8 : sq + 8;
+            if (pos.pieceAt(pushed) == Position.piece(us ^ 1, Position.PAWN)
+                && (Attacks.pawn(us ^ 1, sq) & pos.pieces(us, Position.PAWN)) != 0) {
+                pos.setEpSquare(sq);
+            }
+        }
+
+        i = skipSpaces(fen, i);
+        if (i < n) {
+            int end = fieldEnd(fen, i);
+            pos.setHalfmoveClock(number(fen, i, end));
+            i = skipSpaces(fen, end);
+        }
+        if (i < n) {
+            int end = fieldEnd(fen, i);
+            pos.setFullmoveNumber(Math.max(1, number(fen, i, end)));
+        }
+    }
+
+    /** All six FEN fields of {@code pos}. */
+    public static String save(Position pos) {
+        return save(pos, new StringBuilder(90)).toString();
+    }
+
+    /** Appends all six FEN fields of {@code pos} to {@code sb}. */
+    public static StringBuilder save(Position pos, StringBuilder sb) {
+        for (int y = 7; y >= 0; y--) {
+            int empty = 0;
+            for (int x = 0; x < 8; x++) {
+                int p = pos.pieceAt(Bitboards.square(x, y));
+                if (p == Position.EMPTY) {
+                    empty++;
+                    continue;
+                }
+                if (empty > 0) sb.append((char) ('0' + empty));
+                empty = 0;
+                char c = PIECE_CHARS.charAt(Position.typeOf(p));
+                sb.append(Position.colorOf(p) == Position.WHITE ? Character.toUpperCase(c) : c);
+            }
+            if (empty > 0) sb.append((char) ('0' + empty));
+            if (y > 0) sb.append('/');
+        }
+
+        sb.append(pos.getSideToMove() == Position.WHITE ? " w " : " b ");
+
+        int rights = pos.getCastlingRights();
+        if (rights == 0) sb.append('-');
+        if ((rights & Position.WHITE_KINGSIDE) != 0)  sb.append('K');
+        if ((rights & Position.WHITE_QUEENSIDE) != 0) sb.append('Q');
+        if ((rights & Position.BLACK_KINGSIDE) != 0)  sb.append('k');
+        if ((rights & Position.BLACK_QUEENSIDE) != 0) sb.append('q');
+
+        int ep = pos.getEpSquare();
+        if (ep == Position.NO_SQUARE) {
+            sb.append(" -");
+        } else {
+            sb.append(' ').append((char) ('a' + Bitboards.file(ep))).append((char) ('1' + Bitboards.rank(ep)));
+        }
+
+        return sb.append(' ').append(pos.getHalfmoveClock())
+            .append(' ').append(pos.getFullmoveNumber());
+    }
+
+    /** The castling rights whose king and rook are still on their home squares. */
+    private static int possibleRights(Position pos) {
+        int rights = 0;
+        int whiteKing = Position.piece(Position.WHITE, Position.KING);
+        int whiteRook = Position.piece(Position.WHITE, Position.ROOK);
+        int blackKing = Position.piece(Position.BLACK, Position.KING);
+        int blackRook = Position.piece(Position.BLACK, Position.ROOK);
+        if (pos.pieceAt(4) == whiteKing) {
+            if (pos.pieceAt(7) == whiteRook) rights |= Position.WHITE_KINGSIDE;
+            if (pos.pieceAt(0) == whiteRook) rights |= Position.WHITE_QUEENSIDE;
+        }
+        if (pos.pieceAt(60) == blackKing) {
+            if (pos.pieceAt(63) == blackRook) rights |= Position.BLACK_KINGSIDE;
+            if (pos.pieceAt(56) == blackRook) rights |= Position.BLACK_QUEENSIDE;
+        }
+        return rights;
+    }
+
+    private static int skipSpaces(String fen, int i) {
+        while (i < fen.length() && fen.charAt(i) == ' ') i++;
+        return i;
+    }
+
+    private static int fieldEnd(String fen, int i) {
+        while (i < fen.length() && fen.charAt(i) != ' ') i++;
+        return i;
+    }
+
+    private static int number(String fen, int start, int end) {
+        if (end - start > 6) throw new IllegalArgumentException("Bad move counter in FEN: " + fen);
+        int value = 0;
+        for (int i = start; i < end; i++) {
+            char c = fen.charAt(i);
+            if (c < '0' || c > '9') throw new IllegalArgumentException("Bad move counter in FEN: " + fen);
+            value = value * 10 + (c - '0');
+        }
+        return value;
+    }
+}
@@ -0,0 +1,246 @@
+package com.mygdx.chess.bitboard;
+
+import static com.mygdx.chess.bitboard.Bitboards.*;
+import static com.mygdx.chess.bitboard.Position.*;
+
+/**
+ * Generates moves for the side to move of a {@link Position}.
+ * Pseudo-legal moves are emitted per piece type; legal moves are the
+ * pseudo-legal ones that pass the pin and check-evasion masks.
+ */
+public final class MoveGenerator {
+    private static final long RANK_3 = RANK_1 << 16;
+    private static final long RANK_6 = RANK_1 << 40;
+
+    private MoveGenerator() { /* no-op */ }
+
+    /**
+     * Replaces the contents of {@code list} with every legal move.
+     * Checkers and pinned pieces are computed once; each pseudo-legal
+     * move is then accepted or rejected with ray masks.
+     */
+    public static void generateLegal(Position pos, MoveList list) {
+        generatePseudoLegal(pos, list);
+        removeIllegal(pos, list);
+    }
+
+    /**
+     * Replaces the contents of {@code list} with the legal captures and
+     * queen promotions, the moves a quiescence search looks at.
+     */
+    public static void generateCaptures(Position pos, MoveList list) {
+        list.clear();
+        generate(pos, list, true);
+        removeIllegal(pos, list);
+    }
+
+    private static void removeIllegal(Position pos, MoveList list) {
+        int us = pos.getSideToMove();
+        int king = pos.kingSquare(us);
+        if (king == NO_SQUARE) return;
+
+        long checkers = pos.attackersTo(king, us ^ 1, pos.occupied());
+        long pinned = pinned(pos, us, king);
+        for (int i = 0; i < list.size(); ) {
+            if (isLegal(pos, list.get(i), us, king, checkers, pinned)) {
+                i++;
+            } else {
+                list.removeAt(i);
+            }
+        }
+    }
+
+    /** True if a pseudo-legal {@code move} does not leave the mover's king in check. */
+    public static boolean isLegal(Position pos, int move) {
+        int us = pos.colorAt(PackedMove.from(move));
+        int king = pos.kingSquare(us);
+        if (king == NO_SQUARE) return true;
+        long checkers = pos.attackersTo(king, us ^ 1, pos.occupied());
+        return isLegal(pos, move, us, king, checkers, pinned(pos, us, king));
+    }
+
+    /** Pieces of {@code us} that are the only blocker between their king and an enemy slider. */
+    public static long pinned(Position pos, int us, int king) {
+        int them = us ^ 1;
+        long theirs = pos.occupancy(them);
+        long queens = pos.pieces(them, QUEEN);
+        long snipers = (Attacks.rook(king, theirs) & (pos.pieces(them, ROOK) | queens))
+            | (Attacks.bishop(king, theirs) & (pos.pieces(them, BISHOP) | queens));
+
+        long pinned = 0L;
+        while (snipers != 0) {
+            int sniper = lsb(snipers);
+            snipers &= snipers - 1;
+            long blockers = between(king, sniper) & pos.occupied();
+            if (blockers != 0 && (blockers & (blockers - 1)) == 0) {
+                pinned |= blockers & pos.occupancy(us);
+            }
+        }
+        return pinned;
+    }
+
+    private static boolean isLegal(Position pos, int move, int us, int king,
+                                   long checkers, long pinned) {
+        int from = PackedMove.from(move), to = PackedMove.to(move);
+        int them = us ^ 1;
+
+        if (from == king) {
+            // castling squares were already vetted during generation
+            if (PackedMove.flag(move) == PackedMove.CASTLE) return true;
+            return pos.attackersTo(to, them, pos.occupied() ^ bit(king)) == 0;
+        }
+
+        // only the king can answer a double check
+        if ((checkers & (checkers - 1)) != 0) return false;
+
+        if (PackedMove.flag(move) == PackedMove.EN_PASSANT) {
+            // two pawns leave one rank at once, so test the resulting occupancy directly
+            int capSq = us == WHITE ? to - 8 : to + 8;
+            long occ = (pos.occupied() ^ bit(from) ^ bit(capSq)) | bit(to);
+            return (pos.attackersTo(king, them, occ) & ~bit(capSq)) == 0;
+        }
+
+        if (checkers != 0 && ((checkers | between(king, lsb(checkers))) & bit(to)) == 0) {
+            return false;
+        }
+        return (pinned & bit(from)) == 0 || (line(king, from) & bit(to)) != 0;
+    }
+
+    /** Replaces the contents of {@code list} with every pseudo-legal move. */
+    public static void generatePseudoLegal(Position pos, MoveList list) {
+        list.clear();
+        generate(pos, list, false);
+        generateCastling(pos, pos.getSideToMove(), pos.occupied(), list);
+    }
+
+    private static void generate(Position pos, MoveList list, boolean capturesOnly) {
+        int us = pos.getSideToMove();
+        long occ = pos.occupied();
+        long targets = capturesOnly ? pos.occupancy(us ^ 1) : ~pos.occupancy(us);
+
+        generatePawnMoves(pos, us, occ, capturesOnly, list);
+        for (int type = KNIGHT; type <= KING; type++) {
+            long pieces = pos.pieces(us, type);
+            int moved = piece(us, type);
+            while (pieces != 0) {
+                int from = lsb(pieces);
+                pieces &= pieces - 1;
+                addMoves(pos, from, moved, Attacks.of(type, us, from, occ) & targets, list);
+            }
+        }
+    }
+
+    /**
+     * Builds the packed move for a from/to pair on {@code pos}, filling in
+     * the moving and captured pieces and inferring the double-push,
+     * en passant and castling flags.
+     */
+    public static int moveFor(Position pos, int from, int to, int promotion) {
+        int moved = pos.pieceAt(from);
+        int captured = pos.pieceAt(to);
+        int type = typeOf(moved);
+        int flag = PackedMove.NORMAL;
+        if (type == PAWN) {
+            if (to == pos.getEpSquare() && file(to) != file(from)) {
+                flag = PackedMove.EN_PASSANT;
+                captured = piece(colorOf(moved) ^ 1, PAWN);
+            } else if (Math.abs(to - from) == 16) {
+                flag = PackedMove.DOUBLE_PUSH;
+            }
+        } else if (type == KING && Math.abs(to - from) == 2) {
+            flag = PackedMove.CASTLE;
+        }
+        return PackedMove.of(from, to, moved, captured, promotion, flag);
+    }
+
+    private static void generatePawnMoves(Position pos, int us, long occ, boolean capturesOnly,
+                                          MoveList list) {
+        long pawns = pos.pieces(us, PAWN);
+        long enemy = pos.occupancy(us ^ 1);
+        long empty = ~occ;
+        // captures only: pushes just for promotion, and no under-promotions
+        int lowestPromo = capturesOnly ? QUEEN : KNIGHT;
+
+        if (us == WHITE) {
+            long push1 = (pawns << 8) & empty;
+            long push2 = ((push1 & RANK_3) << 8) & empty;
+            if (capturesOnly) {
+                push1 &= RANK_8;
+                push2 = 0L;
+            }
+            addPawnMoves(pos, us, push1, 8, PackedMove.NORMAL, RANK_8, lowestPromo, list);
+            addPawnMoves(pos, us, push2, 16, PackedMove.DOUBLE_PUSH, 0L, lowestPromo, list);
+            addPawnMoves(pos, us, (pawns << 7) & ~FILE_H & enemy, 7, PackedMove.NORMAL, RANK_8, lowestPromo, list);
+            addPawnMoves(pos, us, (pawns << 9) & ~FILE_A & enemy, 9, PackedMove.NORMAL, RANK_8, lowestPromo, list);
+        } else {
+            long push1 = (pawns >>> 8) & empty;
+            long push2 = ((push1 & RANK_6) >>> 8) & empty;
+            if (capturesOnly) {
+                push1 &= RANK_1;
+                push2 = 0L;
+            }
+            addPawnMoves(pos, us, push1, -8, PackedMove.NORMAL, RANK_1, lowestPromo, list);
+            addPawnMoves(pos, us, push2, -16, PackedMove.DOUBLE_PUSH, 0L, lowestPromo, list);
+            addPawnMoves(pos, us, (pawns >>> 9) & ~FILE_H & enemy, -9, PackedMove.NORMAL, RANK_1, lowestPromo, list);
+            addPawnMoves(pos, us, (pawns >>> 7) & ~FILE_A & enemy, -7, PackedMove.NORMAL, RANK_1, lowestPromo, list);
+        }
+
+        int ep = pos.getEpSquare();
+        if (ep != NO_SQUARE) {
+            long attackers = Attacks.pawn(us ^ 1, ep) & pawns;
+            while (attackers != 0) {
+                int from = lsb(attackers);
+                attackers &= attackers - 1;
+                list.add(PackedMove.of(from, ep, piece(us, PAWN), piece(us ^ 1, PAWN), 0, PackedMove.EN_PASSANT));
+            }
+        }
+    }
+
+    private static void addPawnMoves(Position pos, int us, long targets, int delta, int flag,
+                                     long promoRank, int lowestPromo, MoveList list) {
+        int pawn = piece(us, PAWN);
+        while (targets != 0) {
+            int to = lsb(targets);
+            targets &= targets - 1;
+            int from = to - delta;
+            int captured = pos.pieceAt(to);
+            if ((bit(to) & promoRank) != 0) {
+                for (int promo = QUEEN; promo >= lowestPromo; promo--) {
+                    list.add(PackedMove.of(from, to, pawn, captured, promo, PackedMove.NORMAL));
+                }
+            } else {
+                list.add(PackedMove.of(from, to, pawn, captured, 0, flag));
+            }
+        }
+    }
+
+    private static void addMoves(Position pos, int from, int moved, long targets, MoveList list) {
+        while (targets != 0) {
+            int to = lsb(targets);
+            list.add(PackedMove.of(from, to, moved, pos.pieceAt(to), 0, PackedMove.NORMAL));
+            targets &= targets - 1;
+        }
+    }
+
+    private static void generateCastling(Position pos, int us, long occ, MoveList list) {
+        int rights = pos.getCastlingRights() >>> (2 * us);
+        if ((rights & (WHITE_KINGSIDE | WHITE_QUEENSIDE)) == 0) return;
+
+        int king = us == WHITE ? 4 : 60;
+        int them = us ^ 1;
+        if (pos.isSquareAttacked(king, them)) return;
+
+        if ((rights & WHITE_KINGSIDE) != 0
+            && (between(king, king + 3) & occ) == 0
+            && !pos.isSquareAttacked(king + 1, them)
+            && !pos.isSquareAttacked(king + 2, them)) {
+            list.add(PackedMove.of(king, king + 2, piece(us, KING), EMPTY, 0, PackedMove.CASTLE));
+        }
+        if ((rights & WHITE_QUEENSIDE) != 0
+            && (between(king, king - 4) & occ) == 0
+            && !pos.isSquareAttacked(king - 1, them)
+            && !pos.isSquareAttacked(king - 2, them)) {
+            list.add(PackedMove.of(king, king - 2, piece(us, KING), EMPTY, 0, PackedMove.CASTLE));
+        }
+    }
+}
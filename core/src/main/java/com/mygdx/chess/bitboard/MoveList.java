@@ -0,0 +1,49 @@
+package com.mygdx.chess.bitboard;
+
+import java.util.Arrays;
+
+/**
+ * Reusable buffer of packed moves. Sized for any single position's move
+ * list; grows only when used for longer sequences such as a game record.
+ */
+public final class MoveList {
+    // no legal chess position has more than 218 moves
+    public static final int CAPACITY = 256;
+
+    private int[] moves = new int[CAPACITY];
+    private int size;
+
+    public void add(int move) {
+        if (size == moves.length) moves = Arrays.copyOf(moves, size * 2);
+        moves[size++] = move;
+    }
+
+    public int get(int index)  { return moves[index]; }
+    public int size()          { return size; }
+    public boolean isEmpty()   { return size == 0; }
+    public void clear()        { size = 0; }
+
+    /** Removes the move at {@code index} by swapping the last one into its place. */
+    public void removeAt(int index) {
+        moves[index] = moves[--size];
+    }
+
+    public void swap(int i, int j) {
+        int m = moves[i];
+        moves[i] = moves[j];
+        moves[j] = m;
+    }
+
+    public void copyFrom(MoveList other) {
+        if (moves.length < other.size) moves = new int[other.moves.length];
+        System.arraycopy(other.moves, 0, moves, 0, other.size);
+        size = other.size;
+    }
+
+    public boolean contains(int move) {
+        for (int i = 0; i < size; i++) {
+            if (moves[i] == move) return true;
+        }
+        return false;
+    }
+}
@@ -0,0 +1,60 @@
+package com.mygdx.chess.bitboard;
+
+/**
+ * Encodes a complete move into a single int:
+ * bits 0-5 origin square, 6-11 destination square,
+ * 12-14 promotion piece type (0 = none), 15-16 special flag,
+ * 17-20 moving piece code, 21-24 captured piece code + 1 (0 = none).
+ * Piece codes are those of {@link Position#piece(int, int)}.
+ */
+public final class PackedMove {
+    public static final int NORMAL      = 0;
+    public static final int DOUBLE_PUSH = 1;
+    public static final int EN_PASSANT  = 2;
+    public static final int CASTLE      = 3;
+
+    /** Never a legal move (a1 to a1); used as "no move". */
+    public static final int NONE = 0;
+
+    private static final int PROMOTION_MASK = 0x7 << 12;
+
+    private PackedMove() { /* no-op */ }
+
+    /**
+     * @param moved    piece code of the moving piece
+     * @param captured piece code of the captured piece, or {@link Position#EMPTY}
+     */
+    public static int of(int from, int to, int moved, int captured, int promotion, int flag) {
+        return from | (to << 6) | (promotion << 12) | (flag << 15)
+            | (moved << 17) | ((captured + 1) << 21);
+    }
+
+    public static int from(int move)      { return move & 0x3F; }
+    public static int to(int move)        { return (move >>> 6) & 0x3F; }
+    public static int promotion(int move) { return (move >>> 12) & 0x7; }
+    public static int flag(int move)      { return (move >>> 15) & 0x3; }
+    public static int moved(int move)     { return (move >>> 17) & 0xF; }
+
+    /** @return piece code of the captured piece, or {@link Position#EMPTY} */
+    public static int captured(int move)  { return ((move >>> 21) & 0xF) - 1; }
+
+    public static boolean isCapture(int move)   { return (move >>> 21) != 0; }
+    public static boolean isPromotion(int move) { return (move & PROMOTION_MASK) != 0; }
+
+    /** Same move with a different promotion piece type. */
+    public static int withPromotion(int move, int promotion) {
+        return (move & ~PROMOTION_MASK) | (promotion << 12);
+    }
+
+    /** Coordinate notation as used by UCI, e.g. "e2e4" or "e7e8q". */
+    public static String toUci(int move) {
+        int from = from(move), to = to(move);
+        StringBuilder sb = new StringBuilder(5)
+            .append((char) ('a' + Bitboards.file(from))).append((char) ('1' + Bitboards.rank(from)))
+            .append((char) ('a' + Bitboards.file(to))).append((char) ('1' + Bitboards.rank(to)));
+        if (promotion(move) != 0) {
+            sb.append("pnbrqk".charAt(promotion(move)));
+        }
+        return sb.toString();
+    }
+}
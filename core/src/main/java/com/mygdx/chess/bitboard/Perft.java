@@ -0,0 +1,151 @@
+package com.mygdx.chess.bitboard;
+
+import java.util.Locale;
+
+/**
+ * Counts the leaf nodes of the legal move tree to a fixed depth.
+ * Comparing the totals with published values is the correctness check for
+ * {@link MoveGenerator} and make/unmake; the nodes per second reported is
+ * the throughput figure to watch when optimising them.
+ *
+ * <pre>
+ * Perft [--fen "&lt;fen&gt;"] [--depth N] [--divide]
+ * Perft --suite [--full]
+ * </pre>
+ */
+public final class Perft {
+    private static final int MAX_DEPTH = 32;
+
+    /** FEN, then the published node counts for depth 1, 2, 3, ... */
+    private static final Object[][] SUITE = {
+        {Fen.START,
+            new long[]{20, 400, 8902, 197281, 4865609, 119060324}},
+        {"r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq - 0 1",
+            new long[]{48, 2039, 97862, 4085603, 193690690}},
+        {"8/2p5/3p4/KP5r/1R3p1k/8/4P1P1/8 w - - 0 1",
+            new long[]{14, 191, 2812, 43238, 674624, 11030083}},
+        {"r3k2r/Pppp1ppp/1b3nbN/nP6/BBP1P3/q4N2/Pp1P2PP/R2Q1RK1 w kq - 0 1",
+            new long[]{6, 264, 9467, 422333, 15833292}},
+        {"r2q1rk1/pP1p2pp/Q4n2/bbp1p3/Np6/1B3NBn/pPPP1PPP/R3K2R b KQ - 0 1",
+            new long[]{6, 264, 9467, 422333, 15833292}},
+        {"rnbq1k1r/pp1Pbppp/2p5/8/2B5/8/PPP1NnPP/RNBQK2R w KQ - 1 8",
+            new long[]{44, 1486, 62379, 2103487, 89941194}},
+        {"r4rk1/1pp1qppp/p1np1n2/2b1p1B1/2B1P1b1/P1NP1N2/1PP1QPPP/R4RK1 w - - 0 10",
+            new long[]{46, 2079, 89890, 3894594, 164075551}},
+    };
+    // depth the quick suite stops at for each entry, keeping a run to seconds
+    private static final int[] QUICK_DEPTH = {5, 4, 5, 4, 4, 4, 4};
+
+    private final MoveList[] lists = new MoveList[MAX_DEPTH];
+
+    public Perft() {
+        for (int i = 0; i < lists.length; i++) {
+            lists[i] = new MoveList();
+        }
+    }
+
+    /** Leaf nodes reachable from {@code pos} in exactly {@code depth} plies. */
+    public long count(Position pos, int depth) {
+        if (depth <= 0) return 1;
+        MoveList moves = lists[depth];
+        MoveGenerator.generateLegal(pos, moves);
+        // bulk count: the last ply needs no make/unmake
+        if (depth == 1) return moves.size();
+
+        long nodes = 0;
+        for (int i = 0; i < moves.size(); i++) {
+            int move = moves.get(i);
+            pos.makeMove(move);
+            nodes += count(pos, depth - 1);
+            pos.unmakeMove(move);
+        }
+        return nodes;
+    }
+
+    /** Prints the subtree size below each root move, then the total. */
+    public long divide(Position pos, int depth) {
+        MoveList root = new MoveList();
+        MoveGenerator.generateLegal(pos, root);
+        long total = 0;
+        for (int i = 0; i < root.size(); i++) {
+            int move = root.get(i);
+            pos.makeMove(move);
+            long nodes = count(pos, depth - 1);
+            pos.unmakeMove(move);
+            System.out.println(PackedMove.toUci(move) + ": " + nodes);
+            total += nodes;
+        }
+        return total;
+    }
+
+    /**
+     * Runs every suite position and compares against the published totals.
+     *
+     * @param full go to the deepest published depth instead of the quick one
+     * @return true if every count matched
+     */
+    public boolean runSuite(boolean full) {
+        boolean ok = true;
+        long allNodes = 0, allNanos = 0;
+        for (int i = 0; i < SUITE.length; i++) {
+            String fen = (String) SUITE[i][0];
+            long[] expected = (long[]) SUITE[i][1];
+            int depth = full ? expected.length : QUICK_DEPTH[i];
+
+            Position pos = Fen.load(fen);
+            long start = System.nanoTime();
+            long nodes = count(pos, depth);
+            long nanos = System.nanoTime() - start;
+            allNodes += nodes;
+            allNanos += nanos;
+
+            boolean match = nodes == expected[depth - 1];
+            ok &= match;
+            System.out.println(String.format(Locale.ROOT, "%-4s d%d %,14d %s  %s",
+                match ? "ok" : "FAIL", depth, nodes, rate(nodes, nanos), fen));
+            if (!match) {
+                System.out.println(String.format(Locale.ROOT, "     expected %,d", expected[depth - 1]));
+            }
+        }
+        System.out.println(String.format(Locale.ROOT, "total %,d nodes, %s", allNodes, rate(allNodes, allNanos)));
+        return ok;
+    }
+
+    private static String rate(long nodes, long nanos) {
+        long ms = Math.max(1, nanos / 1_000_000);
+        return String.format(Locale.ROOT, "%,d ms, %,d nps", ms, nodes * 1000 / ms);
+    }
+
+    public static void main(String[] args) {
+        String fen = Fen.START;
+        int depth = 5;
+        boolean divide = false, suite = false, full = false;
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "--fen":    fen = args[++i]; break;
+                case "--depth":  depth = Integer.parseInt(args[++i]); break;
+                case "--divide": divide = true; break;
+                case "--suite":  suite = true; break;
+                case "--full":   full = true; break;
+                default:
+                    System.err.println("Unknown argument: " + args[i]);
+                    System.exit(2);
+            }
+        }
+        if (depth < 1 || depth >= MAX_DEPTH) {
+            System.err.println("Depth must be between 1 and " + (MAX_DEPTH - 1));
+            System.exit(2);
+        }
+
+        Perft perft = new Perft();
+        if (suite) {
+            System.exit(perft.runSuite(full) ? 0 : 1);
+        }
+
+        Position pos = Fen.load(fen);
+        long start = System.nanoTime();
+        long nodes = divide ? perft.divide(pos, depth) : perft.count(pos, depth);
+        long nanos = System.nanoTime() - start;
+        System.out.println(String.format(Locale.ROOT, "depth %d: %,d nodes, %s", depth, nodes, rate(nodes, nanos)));
+    }
+}
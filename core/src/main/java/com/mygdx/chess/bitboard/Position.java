@@ -0,0 +1,428 @@
+package com.mygdx.chess.bitboard;
+
+import java.util.Arrays;
+
+import static com.mygdx.chess.bitboard.Bitboards.bit;
+import static com.mygdx.chess.bitboard.PackedMove.*;
+
+/**
+ * Bitboard representation of a chess position: one occupancy mask per
+ * colour and piece type, a square-indexed mailbox for O(1) lookups, plus
+ * side to move, castling rights and the en passant square. A Zobrist key
+ * of all of these is kept up to date by every mutator, as are a key of the
+ * pawns alone, the halfmove clock, a material signature used for draw
+ * detection and the sum of an evaluator's piece-square table (see
+ * {@link #setPieceSquareTable}).
+ */
+public final class Position {
+    public static final int WHITE = 0;
+    public static final int BLACK = 1;
+
+    public static final int PAWN   = 0;
+    public static final int KNIGHT = 1;
+    public static final int BISHOP = 2;
+    public static final int ROOK   = 3;
+    public static final int QUEEN  = 4;
+    public static final int KING   = 5;
+
+    public static final int EMPTY     = -1;
+    public static final int NO_SQUARE = -1;
+
+    public static final int WHITE_KINGSIDE  = 1;
+    public static final int WHITE_QUEENSIDE = 2;
+    public static final int BLACK_KINGSIDE  = 4;
+    public static final int BLACK_QUEENSIDE = 8;
+
+    private final long[] pieceBB = new long[12];
+    private final long[] colorBB = new long[2];
+    private final int[]  board   = new int[64];
+    private long occupied;
+
+    private int sideToMove = WHITE;
+    private int castlingRights;
+    private int epSquare = NO_SQUARE;
+    private long key;
+    private long pawnKey;
+    // plies since the last capture or pawn move
+    private int halfmoveClock;
+    // starts at 1, incremented after each black move
+    private int fullmoveNumber = 1;
+    // piece counts, four bits per piece code
+    private long material;
+    // evaluator weights indexed by piece * 64 + square, and their sum over the board
+    private int[] psqTable = NO_PSQ_TABLE;
+    private int psqScore;
+
+    private static final int[] NO_PSQ_TABLE = new int[12 * 64];
+
+    private static final long LIGHT_SQUARES = 0x55AA55AA55AA55AAL;
+    private static final long HEAVY_OR_PAWN =
+        0xFL << (4 * PAWN) | 0xFL << (4 * ROOK) | 0xFL << (4 * QUEEN)
+        | 0xFL << (4 * (6 + PAWN)) | 0xFL << (4 * (6 + ROOK)) | 0xFL << (4 * (6 + QUEEN));
+
+    // castling rights kept after a move touches the square
+    private static final int[] CASTLING_MASK = new int[64];
+
+    static {
+        Arrays.fill(CASTLING_MASK, 0xF);
+        CASTLING_MASK[4]  &= ~(WHITE_KINGSIDE | WHITE_QUEENSIDE);
+        CASTLING_MASK[7]  &= ~WHITE_KINGSIDE;
+        CASTLING_MASK[0]  &= ~WHITE_QUEENSIDE;
+        CASTLING_MASK[60] &= ~(BLACK_KINGSIDE | BLACK_QUEENSIDE);
+        CASTLING_MASK[63] &= ~BLACK_KINGSIDE;
+        CASTLING_MASK[56] &= ~BLACK_QUEENSIDE;
+    }
+
+    // undo stack for unmakeMove, one entry per ply made; the captured
+    // piece travels in the move itself. undoKey doubles as the key history
+    // for repetition detection.
+    private int[] undoCastling = new int[256];
+    private int[] undoEp       = new int[256];
+    private int[] undoClock    = new int[256];
+    private long[] undoKey     = new long[256];
+    private int ply;
+
+    public Position() {
+        Arrays.fill(board, EMPTY);
+    }
+
+    /**
+     * Copies the board state of {@code other} together with its undo
+     * history, so repetitions of earlier positions are still detected.
+     */
+    public Position(Position other) {
+        copyFrom(other);
+    }
+
+    public void copyFrom(Position other) {
+        System.arraycopy(other.pieceBB, 0, pieceBB, 0, pieceBB.length);
+        System.arraycopy(other.colorBB, 0, colorBB, 0, colorBB.length);
+        System.arraycopy(other.board, 0, board, 0, board.length);
+        occupied = other.occupied;
+        sideToMove = other.sideToMove;
+        castlingRights = other.castlingRights;
+        epSquare = other.epSquare;
+        key = other.key;
+        pawnKey = other.pawnKey;
+        halfmoveClock = other.halfmoveClock;
+        fullmoveNumber = other.fullmoveNumber;
+        material = other.material;
+        psqTable = other.psqTable;
+        psqScore = other.psqScore;
+        if (undoCastling.length < other.ply) {
+            undoCastling = new int[other.undoCastling.length];
+            undoEp       = new int[other.undoCastling.length];
+            undoClock    = new int[other.undoCastling.length];
+            undoKey      = new long[other.undoCastling.length];
+        }
+        ply = other.ply;
+        System.arraycopy(other.undoCastling, 0, undoCastling, 0, ply);
+        System.arraycopy(other.undoEp, 0, undoEp, 0, ply);
+        System.arraycopy(other.undoClock, 0, undoClock, 0, ply);
+        System.arraycopy(other.undoKey, 0, undoKey, 0, ply);
+    }
+
+    /** Piece code stored in the mailbox for the given colour and type. */
+    public static int piece(int color, int type) { return color * 6 + type; }
+    public static int colorOf(int piece)         { return piece < 6 ? WHITE : BLACK; }
+    public static int typeOf(int piece)          { return piece < 6 ? piece : piece - 6; }
+
+    /** Removes every piece and resets side, castling rights, en passant and history. */
+    public void clear() {
+        Arrays.fill(pieceBB, 0L);
+        colorBB[WHITE] = colorBB[BLACK] = 0L;
+        occupied = 0L;
+        Arrays.fill(board, EMPTY);
+        sideToMove = WHITE;
+        castlingRights = 0;
+        epSquare = NO_SQUARE;
+        key = 0L;
+        pawnKey = 0L;
+        halfmoveClock = 0;
+        fullmoveNumber = 1;
+        material = 0L;
+        psqScore = 0;
+        ply = 0;
+    }
+
+    public void put(int color, int type, int sq) {
+        long b = bit(sq);
+        int p = piece(color, type);
+        pieceBB[p] |= b;
+        colorBB[color] |= b;
+        occupied |= b;
+        board[sq] = p;
+        key ^= Zobrist.piece(p, sq);
+        pawnKey ^= Zobrist.pawn(p, sq);
+        material += 1L << (4 * p);
+        psqScore += psqTable[(p << 6) | sq];
+    }
+
+    public void remove(int sq) {
+        int p = board[sq];
+        if (p == EMPTY) return;
+        long b = bit(sq);
+        pieceBB[p] &= ~b;
+        colorBB[colorOf(p)] &= ~b;
+        occupied &= ~b;
+        board[sq] = EMPTY;
+        key ^= Zobrist.piece(p, sq);
+        pawnKey ^= Zobrist.pawn(p, sq);
+        material -= 1L << (4 * p);
+        psqScore -= psqTable[(p << 6) | sq];
+    }
+
+    public int pieceAt(int sq)          { return board[sq]; }
+    public boolean isEmpty(int sq)      { return board[sq] == EMPTY; }
+    public long pieces(int color, int type) { return pieceBB[piece(color, type)]; }
+    public long occupancy(int color)    { return colorBB[color]; }
+    public long occupied()              { return occupied; }
+
+    /** @return colour of the piece on {@code sq}, or {@link #EMPTY} */
+    public int colorAt(int sq) {
+        int p = board[sq];
+        return p == EMPTY ? EMPTY : colorOf(p);
+    }
+
+    /** @return square of the given side's king, or {@link #NO_SQUARE} if absent */
+    public int kingSquare(int color) {
+        long k = pieces(color, KING);
+        return k == 0 ? NO_SQUARE : Bitboards.lsb(k);
+    }
+
+    public int getSideToMove()          { return sideToMove; }
+
+    public void setSideToMove(int side) {
+        if (side != sideToMove) key ^= Zobrist.side();
+        sideToMove = side;
+    }
+
+    public int getCastlingRights()      { return castlingRights; }
+
+    public void setCastlingRights(int rights) {
+        key ^= Zobrist.castling(castlingRights) ^ Zobrist.castling(rights);
+        castlingRights = rights;
+    }
+
+    public int getEpSquare()            { return epSquare; }
+
+    public void setEpSquare(int sq) {
+        key ^= Zobrist.enPassant(epSquare) ^ Zobrist.enPassant(sq);
+        epSquare = sq;
+    }
+
+    /** Zobrist key of the current position. */
+    public long getKey()                { return key; }
+
+    /** Zobrist key of the pawns only; equal for equal pawn structures. */
+    public long getPawnKey()            { return pawnKey; }
+
+    /** Plies since the last capture or pawn move, for the fifty-move rule. */
+    public int getHalfmoveClock()       { return halfmoveClock; }
+
+    public void setHalfmoveClock(int clock) { halfmoveClock = clock; }
+
+    /** Number of the current full move, as in FEN. */
+    public int getFullmoveNumber()      { return fullmoveNumber; }
+
+    public void setFullmoveNumber(int number) { fullmoveNumber = number; }
+
+    /** Piece counts packed four bits per piece code; equal for equal material. */
+    public long getMaterialSignature()  { return material; }
+
+    /** Number of pieces with the given piece code, read from the material signature. */
+    public int count(int piece)         { return (int) (material >>> (4 * piece)) & 0xF; }
+
+    /**
+     * Sets the table whose entries, indexed by {@code piece * 64 + square},
+     * are summed over all pieces on the board and kept up to date by every
+     * move. The entries are opaque here; an evaluator typically packs
+     * middlegame and endgame scores into one int. Not copied, so it must
+     * not change afterwards.
+     */
+    public void setPieceSquareTable(int[] table) {
+        if (table.length != NO_PSQ_TABLE.length) {
+            throw new IllegalArgumentException("Expected " + NO_PSQ_TABLE.length + " entries: " + table.length);
+        }
+        psqTable = table;
+        psqScore = 0;
+        for (int sq = 0; sq < 64; sq++) {
+            if (board[sq] != EMPTY) psqScore += table[(board[sq] << 6) | sq];
+        }
+    }
+
+    public int[] getPieceSquareTable()  { return psqTable; }
+
+    /** Sum of the piece-square table entries of all pieces on the board. */
+    public int getPieceSquareScore()    { return psqScore; }
+
+    /**
+     * Counts earlier occurrences of the current position. Only positions
+     * since the last capture or pawn move can repeat, so the scan stops at
+     * the halfmove clock and looks at every second ply only.
+     */
+    public int repetitions() {
+        int count = 0;
+        int stop = Math.max(0, ply - halfmoveClock);
+        for (int i = ply - 2; i >= stop; i -= 2) {
+            if (undoKey[i] == key) count++;
+        }
+        return count;
+    }
+
+    /**
+     * True when neither side has mating material: bare kings, a single
+     * minor piece, or only bishops that all stand on one square colour.
+     */
+    public boolean isInsufficientMaterial() {
+        if ((material & HEAVY_OR_PAWN) != 0) return false;
+        int knights = count(piece(WHITE, KNIGHT)) + count(piece(BLACK, KNIGHT));
+        int bishops = count(piece(WHITE, BISHOP)) + count(piece(BLACK, BISHOP));
+        if (knights + bishops <= 1) return true;
+        if (knights > 0) return false;
+        long b = pieces(WHITE, BISHOP) | pieces(BLACK, BISHOP);
+        return (b & LIGHT_SQUARES) == 0 || (b & ~LIGHT_SQUARES) == 0;
+    }
+
+    /** Recomputes the Zobrist key from scratch; equals {@link #getKey()} when consistent. */
+    public long computeKey() {
+        long k = Zobrist.castling(castlingRights) ^ Zobrist.enPassant(epSquare);
+        if (sideToMove == BLACK) k ^= Zobrist.side();
+        for (int sq = 0; sq < 64; sq++) {
+            if (board[sq] != EMPTY) k ^= Zobrist.piece(board[sq], sq);
+        }
+        return k;
+    }
+
+    /** True if any piece of {@code byColor} attacks {@code sq}. */
+    public boolean isSquareAttacked(int sq, int byColor) {
+        return attackersTo(sq, byColor, occupied) != 0;
+    }
+
+    /**
+     * All pieces of {@code byColor} attacking {@code sq}, with sliders
+     * blocked by {@code occ} (which may differ from the real occupancy).
+     */
+    public long attackersTo(int sq, int byColor, long occ) {
+        long queens = pieces(byColor, QUEEN);
+        return (Attacks.pawn(byColor ^ 1, sq) & pieces(byColor, PAWN))
+            | (Attacks.knight(sq) & pieces(byColor, KNIGHT))
+            | (Attacks.king(sq) & pieces(byColor, KING))
+            | (Attacks.bishop(sq, occ) & (pieces(byColor, BISHOP) | queens))
+            | (Attacks.rook(sq, occ) & (pieces(byColor, ROOK) | queens));
+    }
+
+    public boolean isInCheck(int color) {
+        int k = kingSquare(color);
+        return k != NO_SQUARE && isSquareAttacked(k, color ^ 1);
+    }
+
+    /**
+     * Plays a move produced by {@link MoveGenerator} in place.
+     * Legality is not checked; undo it with {@link #unmakeMove(int)}.
+     */
+    public void makeMove(int move) {
+        if (ply == undoCastling.length) growUndo();
+        int from = from(move), to = to(move), flag = flag(move);
+        int moving = board[from];
+        int us = colorOf(moving);
+
+        undoCastling[ply] = castlingRights;
+        undoEp[ply] = epSquare;
+        undoClock[ply] = halfmoveClock;
+        undoKey[ply++] = key;
+
+        boolean irreversible = typeOf(moving) == PAWN || board[to] != EMPTY;
+        halfmoveClock = irreversible ? 0 : halfmoveClock + 1;
+
+        if (flag == EN_PASSANT) {
+            remove(us == WHITE ? to - 8 : to + 8);
+        } else if (board[to] != EMPTY) {
+            remove(to);
+        }
+
+        remove(from);
+        int promo = promotion(move);
+        put(us, promo != 0 ? promo : typeOf(moving), to);
+
+        if (flag == CASTLE) {
+            int rookFrom = to > from ? from + 3 : from - 4;
+            int rookTo   = to > from ? from + 1 : from - 1;
+            remove(rookFrom);
+            put(us, ROOK, rookTo);
+        }
+
+        setCastlingRights(castlingRights & CASTLING_MASK[from] & CASTLING_MASK[to]);
+        // only record en passant when a capture is actually available,
+        // so transpositions hash identically
+        int ep = NO_SQUARE;
+        if (flag == DOUBLE_PUSH) {
+            int skipped = (from + to) >>> 1;
+            if ((Attacks.pawn(us, skipped) & pieces(us ^ 1, PAWN)) != 0) ep = skipped;
+        }
+        setEpSquare(ep);
+        setSideToMove(us ^ 1);
+        if (us == BLACK) fullmoveNumber++;
+    }
+
+    /** Reverts the last {@link #makeMove(int)}, which must have been {@code move}. */
+    public void unmakeMove(int move) {
+        int from = from(move), to = to(move), flag = flag(move);
+        int us = sideToMove ^ 1;
+        int captured = captured(move);
+        ply--;
+
+        if (flag == CASTLE) {
+            int rookFrom = to > from ? from + 3 : from - 4;
+            int rookTo   = to > from ? from + 1 : from - 1;
+            remove(rookTo);
+            put(us, ROOK, rookFrom);
+        }
+
+        remove(to);
+        put(us, typeOf(moved(move)), from);
+        if (captured != EMPTY) {
+            int capSq = flag == EN_PASSANT ? (us == WHITE ? to - 8 : to + 8) : to;
+            put(colorOf(captured), typeOf(captured), capSq);
+        }
+
+        castlingRights = undoCastling[ply];
+        epSquare = undoEp[ply];
+        halfmoveClock = undoClock[ply];
+        key = undoKey[ply];
+        sideToMove = us;
+        if (us == BLACK) fullmoveNumber--;
+    }
+
+    /**
+     * Passes the turn without moving, for null-move pruning. The clock
+     * restarts so repetition detection never looks across the pass.
+     * Undo it with {@link #unmakeNullMove()}.
+     */
+    public void makeNullMove() {
+        if (ply == undoCastling.length) growUndo();
+        undoCastling[ply] = castlingRights;
+        undoEp[ply] = epSquare;
+        undoClock[ply] = halfmoveClock;
+        undoKey[ply++] = key;
+        halfmoveClock = 0;
+        setEpSquare(NO_SQUARE);
+        setSideToMove(sideToMove ^ 1);
+    }
+
+    public void unmakeNullMove() {
+        ply--;
+        epSquare = undoEp[ply];
+        halfmoveClock = undoClock[ply];
+        key = undoKey[ply];
+        sideToMove ^= 1;
+    }
+
+    private void growUndo() {
+        int n = undoCastling.length * 2;
+        undoCastling = Arrays.copyOf(undoCastling, n);
+        undoEp       = Arrays.copyOf(undoEp, n);
+        undoClock    = Arrays.copyOf(undoClock, n);
+        undoKey      = Arrays.copyOf(undoKey, n);
+    }
+}
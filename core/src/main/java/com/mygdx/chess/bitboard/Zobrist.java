@@ -0,0 +1,61 @@
+package com.mygdx.chess.bitboard;
+
+/**
+ * Random 64-bit keys for Zobrist position hashing. A position's key is the
+ * XOR of the keys of its pieces, side to move, castling rights and en
+ * passant file, so every change can be applied or undone with one XOR.
+ * Keys come from a fixed seed and are therefore stable across runs.
+ * The pawn key uses the same piece keys restricted to pawns.
+ */
+public final class Zobrist {
+    private static final long[][] PIECE_SQUARE = new long[12][64];
+    // PIECE_SQUARE for pawns, 0 for every other piece
+    private static final long[][] PAWN_SQUARE = new long[12][64];
+    private static final long[] CASTLING = new long[16];
+    private static final long[] EP_FILE = new long[8];
+    private static final long SIDE;
+
+    static {
+        long[] state = {0x9E3779B97F4A7C15L};
+        for (int p = 0; p < 12; p++) {
+            for (int sq = 0; sq < 64; sq++) {
+                PIECE_SQUARE[p][sq] = next(state);
+            }
+        }
+        PAWN_SQUARE[Position.piece(Position.WHITE, Position.PAWN)] =
+            PIECE_SQUARE[Position.piece(Position.WHITE, Position.PAWN)];
+        PAWN_SQUARE[Position.piece(Position.BLACK, Position.PAWN)] =
+            PIECE_SQUARE[Position.piece(Position.BLACK, Position.PAWN)];
+        long[] rights = {next(state), next(state), next(state), next(state)};
+        for (int mask = 0; mask < 16; mask++) {
+            for (int i = 0; i < 4; i++) {
+                if ((mask & (1 << i)) != 0) CASTLING[mask] ^= rights[i];
+            }
+        }
+        for (int f = 0; f < 8; f++) {
+            EP_FILE[f] = next(state);
+        }
+        SIDE = next(state);
+    }
+
+    private Zobrist() { /* no-op */ }
+
+    public static long piece(int piece, int sq)  { return PIECE_SQUARE[piece][sq]; }
+    /** Contribution of a piece to the pawn key; 0 unless it is a pawn. */
+    public static long pawn(int piece, int sq)   { return PAWN_SQUARE[piece][sq]; }
+    public static long castling(int rights)      { return CASTLING[rights]; }
+    public static long side()                    { return SIDE; }
+
+    /** Key of an en passant square; 0 for {@link Position#NO_SQUARE}. */
+    public static long enPassant(int sq) {
+        return sq == Position.NO_SQUARE ? 0L : EP_FILE[Bitboards.file(sq)];
+    }
+
+    // SplitMix64
+    private static long next(long[] state) {
+        long z = (state[0] += 0x9E3779B97F4A7C15L);
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+}
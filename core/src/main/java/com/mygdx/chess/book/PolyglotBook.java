@@ -0,0 +1,162 @@
+package com.mygdx.chess.book;
+
+import com.mygdx.chess.bitboard.MoveGenerator;
+import com.mygdx.chess.bitboard.MoveList;
+import com.mygdx.chess.bitboard.PackedMove;
+import com.mygdx.chess.bitboard.Position;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Random;
+
+/**
+ * Opening book in the Polyglot {@code .bin} format: 16-byte big-endian
+ * entries (key, move, weight, learn) sorted by key. The file is memory-mapped
+ * and searched in place, so even a book of hundreds of megabytes costs no
+ * heap and opens instantly; pages are read in by the OS as lookups touch
+ * them. Lookups don't modify the mapping and may run on any thread.
+ */
+public final class PolyglotBook implements Closeable {
+    private static final int ENTRY_BYTES = 16;
+
+    private final FileChannel channel;
+    private final ByteBuffer entries;
+    private final int size;
+    private final PolyglotKeys keys;
+
+    private PolyglotBook(FileChannel channel, ByteBuffer entries, PolyglotKeys keys) {
+        this.channel = channel;
+        this.entries = entries;
+        this.size = entries.capacity() / ENTRY_BYTES;
+        this.keys = keys;
+    }
+
+    /**
+     * Maps {@code file} read-only.
+     *
+     * @throws IOException if it can't be read or is not a whole number of
+     *                     entries below 2 GB
+     */
+    public static PolyglotBook open(Path file, PolyglotKeys keys) throws IOException {
+        FileChannel channel = FileChannel.open(file, StandardOpenOption.READ);
+        try {
+            long bytes = channel.size();
+            if (bytes % ENTRY_BYTES != 0 || bytes > Integer.MAX_VALUE) {
+                throw new IOException("Not a Polyglot book: " + file);
+            }
+            return new PolyglotBook(channel, channel.map(FileChannel.MapMode.READ_ONLY, 0, bytes), keys);
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /** Number of entries in the book. */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Collects the book moves for {@code pos} that are legal there.
+     *
+     * @param weights receives each move's weight at the same index; must
+     *                hold {@link MoveList#CAPACITY} entries
+     * @return the number of moves found
+     */
+    public int probe(Position pos, MoveList moves, int[] weights) {
+        moves.clear();
+        long key = keys.key(pos);
+        MoveList legal = new MoveList();
+        MoveGenerator.generateLegal(pos, legal);
+        for (int i = lowerBound(key); i < size && entries.getLong(i * ENTRY_BYTES) == key; i++) {
+            int move = decode(pos, entries.getShort(i * ENTRY_BYTES + 8) & 0xFFFF, legal);
+            if (move != PackedMove.NONE) {
+                weights[moves.size()] = entries.getShort(i * ENTRY_BYTES + 10) & 0xFFFF;
+                moves.add(move);
+            }
+        }
+        return moves.size();
+    }
+
+    /**
+     * Picks a book move at random, each with probability proportional to
+     * its weight raised to {@code weightPower}: 0 treats all book moves
+     * alike, higher powers favour the main lines more and more.
+     *
+     * @return the move, or {@link PackedMove#NONE} when out of book
+     */
+    public int pick(Position pos, Random random, int weightPower) {
+        MoveList moves = new MoveList();
+        int[] weights = new int[MoveList.CAPACITY];
+        int count = probe(pos, moves, weights);
+        if (count == 0) return PackedMove.NONE;
+
+        double[] odds = new double[count];
+        double total = 0;
+        for (int i = 0; i < count; i++) {
+            odds[i] = Math.pow(weights[i], weightPower);
+            total += odds[i];
+        }
+        if (total == 0) return moves.get(random.nextInt(count));
+        double r = random.nextDouble() * total;
+        for (int i = 0; i < count; i++) {
+            r -= odds[i];
+            if (r < 0) return moves.get(i);
+        }
+        return moves.get(count - 1);
+    }
+
+    /**
+     * Releases the file. Java 8 can't unmap explicitly, so the mapping itself
+     * goes away only once this book is garbage collected.
+     */
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    /** Index of the first entry whose key is not below {@code key}, comparing unsigned. */
+    private int lowerBound(long key) {
+        int lo = 0, hi = size;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (Long.compareUnsigned(entries.getLong(mid * ENTRY_BYTES), key) < 0) {
+                lo = mid + 1;
+            } else {
+                hi = mid;
+            }
+        }
+        return lo;
+    }
+
+    /**
+     * Finds the legal move a Polyglot move stands for: to file in bits 0-2,
+     * to rank 3-5, from file 6-8, from rank 9-11, promotion 12-14 (knight 1
+     * to queen 4). Castling is written as the king taking its own rook.
+     */
+    private static int decode(Position pos, int polyglot, MoveList legal) {
+        int to = polyglot & 0x3F;
+        int from = (polyglot >>> 6) & 0x3F;
+        int promotion = (polyglot >>> 12) & 0x7;
+
+        int moving = pos.pieceAt(from);
+        int target = pos.pieceAt(to);
+        if (moving != Position.EMPTY && Position.typeOf(moving) == Position.KING
+            && target != Position.EMPTY && Position.typeOf(target) == Position.ROOK
+            && Position.colorOf(target) == Position.colorOf(moving)) {
+            to = from + (to > from ? 2 : -2);
+        }
+
+        for (int i = 0; i < legal.size(); i++) {
+            int m = legal.get(i);
+            if (PackedMove.from(m) == from && PackedMove.to(m) == to && PackedMove.promotion(m) == promotion) {
+                return m;
+            }
+        }
+        return PackedMove.NONE;
+    }
+}
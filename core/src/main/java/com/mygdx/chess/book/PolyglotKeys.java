@@ -0,0 +1,111 @@
+package com.mygdx.chess.book;
+
+import com.mygdx.chess.bitboard.Attacks;
+import com.mygdx.chess.bitboard.Bitboards;
+import com.mygdx.chess.bitboard.Fen;
+import com.mygdx.chess.bitboard.Position;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Polyglot position hashing. Books are indexed by keys built from the fixed
+ * table of 781 random numbers in the Polyglot format specification, which
+ * differs from this engine's own {@link com.mygdx.chess.bitboard.Zobrist}
+ * keys. The table is not bundled; {@link #load} reads it as text, so the
+ * C array from the specification can be used as is. A table with a typo
+ * would give keys no book contains, so the bot would silently never find a
+ * move; load checks the start position against the key the specification
+ * gives for it and refuses the table otherwise.
+ */
+public final class PolyglotKeys {
+    public static final int SIZE = 781;
+
+    /** Key of {@link Fen#START} in the specification's examples. */
+    public static final long START_KEY = 0x463b96181691fc9cL;
+
+    // offsets into the table: 12 * 64 piece-squares, then these
+    private static final int CASTLING   = 768;
+    private static final int EN_PASSANT = 772;
+    private static final int TURN       = 780;
+
+    private static final Pattern HEX = Pattern.compile("0[xX]([0-9a-fA-F]{1,16})");
+
+    private final long[] random;
+
+    private PolyglotKeys(long[] random) {
+        this.random = random;
+    }
+
+    /**
+     * Reads the 781 numbers, written in hex with a {@code 0x} prefix and
+     * separated by anything else (commas, {@code ULL} suffixes, newlines).
+     *
+     * @throws IOException if the stream does not hold exactly 781 distinct
+     *         non-zero numbers, or they don't give {@link #START_KEY}
+     */
+    public static PolyglotKeys load(InputStream in) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        byte[] buffer = new byte[8192];
+        for (int n; (n = in.read(buffer)) > 0; ) bytes.write(buffer, 0, n);
+
+        long[] random = new long[SIZE];
+        int count = 0;
+        Matcher m = HEX.matcher(new String(bytes.toByteArray(), StandardCharsets.US_ASCII));
+        while (m.find()) {
+            if (count == SIZE) throw new IOException("More than " + SIZE + " Polyglot random numbers");
+            random[count++] = Long.parseUnsignedLong(m.group(1), 16);
+        }
+        if (count != SIZE) throw new IOException("Expected " + SIZE + " Polyglot random numbers, found " + count);
+
+        long[] sorted = random.clone();
+        Arrays.sort(sorted);
+        for (int i = 0; i < SIZE; i++) {
+            if (sorted[i] == 0 || (i > 0 && sorted[i] == sorted[i - 1])) {
+                throw new IOException("Polyglot random numbers must be distinct and non-zero");
+            }
+        }
+        PolyglotKeys keys = new PolyglotKeys(random);
+        long start = keys.key(Fen.load(Fen.START));
+        if (start != START_KEY) {
+            throw new IOException(String.format("Not the Polyglot random numbers: start position key is %016x, expected %016x",
+                start, START_KEY));
+        }
+        return keys;
+    }
+
+    /** Polyglot key of {@code pos}. */
+    public long key(Position pos) {
+        long key = 0L;
+        long occupied = pos.occupied();
+        while (occupied != 0) {
+            int sq = Bitboards.lsb(occupied);
+            occupied &= occupied - 1;
+            int piece = pos.pieceAt(sq);
+            // Polyglot orders pieces black pawn, white pawn, black knight, ...
+            int kind = 2 * Position.typeOf(piece) + (Position.colorOf(piece) == Position.WHITE ? 1 : 0);
+            key ^= random[64 * kind + sq];
+        }
+
+        int rights = pos.getCastlingRights();
+        if ((rights & Position.WHITE_KINGSIDE) != 0)  key ^= random[CASTLING];
+        if ((rights & Position.WHITE_QUEENSIDE) != 0) key ^= random[CASTLING + 1];
+        if ((rights & Position.BLACK_KINGSIDE) != 0)  key ^= random[CASTLING + 2];
+        if ((rights & Position.BLACK_QUEENSIDE) != 0) key ^= random[CASTLING + 3];
+
+        // the en passant file only counts if a pawn could actually take
+        int us = pos.getSideToMove();
+        int ep = pos.getEpSquare();
+        if (ep != Position.NO_SQUARE && (Attacks.pawn(us ^ 1, ep) & pos.pieces(us, Position.PAWN)) != 0) {
+            key ^= random[EN_PASSANT + Bitboards.file(ep)];
+        }
+
+        if (us == Position.WHITE) key ^= random[TURN];
+        return key;
+    }
+}
@@ -0,0 +1,462 @@
+package com.mygdx.chess.endgame;
+
+import com.mygdx.chess.bitboard.Attacks;
+import com.mygdx.chess.bitboard.Bitboards;
+import com.mygdx.chess.bitboard.Fen;
+import com.mygdx.chess.bitboard.Position;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Builds the {@link Bitbases} by retrograde analysis. Every position of an
+ * endgame is classified once with forward move generation: checkmates are
+ * the first losses, and each weak-king position gets a count of its legal
+ * moves. Then the search runs backwards one ply at a time. A lost position
+ * makes every strong-side position that can move into it a win. A won
+ * position takes one move off the count of every weak-king position that
+ * can move into it, and a count that reaches zero is a new loss. Whatever
+ * is never reached is a draw. A weak king that can safely take a piece
+ * always escapes to a draw.
+ * <p>
+ * Because the plies are processed in order, the ply a win is found at is
+ * its distance to mate. The longest wins are checked against published
+ * figures, textbook positions of every table against their known results,
+ * and every result is then re-derived from its successors with forward
+ * moves. Run offline (see the {@code bitbases} Gradle task); it
+ * needs a few hundred megabytes of heap for KBNK.
+ *
+ * <pre>
+ * BitbaseGenerator [output directory]
+ * </pre>
+ */
+public final class BitbaseGenerator {
+    private static final byte ILLEGAL = 0;
+    private static final byte UNKNOWN = 1;
+    private static final byte WIN     = 2;
+    // move count of a weak-king position that can take a piece and draw
+    private static final byte ESCAPE  = -1;
+
+    private static final int STRONG = 0;
+    private static final int WEAK   = 1;
+
+    /** Longest forced mate in moves, from published endgame statistics; 0 if not checked. */
+    private static int expectedLongestMate(Endgame endgame) {
+        switch (endgame) {
+            case KQK:  return 10;
+            case KRK:  return 16;
+            case KBNK: return 33;
+            default:   return 0;
+        }
+    }
+
+    /**
+     * Positions with textbook results, white being the strong side; the
+     * result is for the side to move. KPK gets the most, as the table most
+     * open to promotion and stalemate mistakes.
+     */
+    private static final Known[] KNOWN = {
+        // king in front of the pawn on the fifth rank: the opposition decides
+        new Known(Endgame.KPK, "8/4k3/8/4K3/4P3/8/8/8 b - -", Bitbases.LOSS),
+        new Known(Endgame.KPK, "8/4k3/8/4K3/4P3/8/8/8 w - -", Bitbases.DRAW),
+        // king two squares in front, or on the sixth rank in front: always wins
+        new Known(Endgame.KPK, "4k3/8/4K3/8/4P3/8/8/8 w - -", Bitbases.WIN),
+        new Known(Endgame.KPK, "4k3/8/4K3/8/4P3/8/8/8 b - -", Bitbases.LOSS),
+        new Known(Endgame.KPK, "4k3/8/4K3/4P3/8/8/8/8 w - -", Bitbases.WIN),
+        new Known(Endgame.KPK, "4k3/8/4K3/4P3/8/8/8/8 b - -", Bitbases.LOSS),
+        // rule of the square, the white king out of play
+        new Known(Endgame.KPK, "8/4k3/8/P7/8/8/8/7K w - -", Bitbases.WIN),
+        new Known(Endgame.KPK, "8/4k3/8/P7/8/8/8/7K b - -", Bitbases.DRAW),
+        // rook pawn with the defender in the corner
+        new Known(Endgame.KPK, "k7/8/8/2K5/P7/8/8/8 w - -", Bitbases.DRAW),
+        new Known(Endgame.KPK, "k7/8/8/2K5/P7/8/8/8 b - -", Bitbases.DRAW),
+        // stalemates
+        new Known(Endgame.KPK, "4k3/4P3/4K3/8/8/8/8/8 b - -", Bitbases.DRAW),
+        new Known(Endgame.KPK, "k7/P7/1K6/8/8/8/8/8 b - -", Bitbases.DRAW),
+        // the pawn falls
+        new Known(Endgame.KPK, "8/8/8/8/8/8/3kP3/7K b - -", Bitbases.DRAW),
+
+        new Known(Endgame.KQK, "4k3/8/8/8/8/8/8/3QK3 w - -", Bitbases.WIN),
+        new Known(Endgame.KQK, "k7/1Q6/2K5/8/8/8/8/8 b - -", Bitbases.LOSS),
+        new Known(Endgame.KQK, "k7/8/1Q6/8/8/8/8/7K b - -", Bitbases.DRAW),
+        new Known(Endgame.KQK, "k7/1Q6/8/8/8/8/8/7K b - -", Bitbases.DRAW),
+
+        new Known(Endgame.KRK, "4k3/8/8/8/8/8/8/R3K3 w - -", Bitbases.WIN),
+        new Known(Endgame.KRK, "R6k/8/6K1/8/8/8/8/8 b - -", Bitbases.LOSS),
+        new Known(Endgame.KRK, "7k/6R1/5K2/8/8/8/8/8 b - -", Bitbases.DRAW),
+        new Known(Endgame.KRK, "7k/6R1/8/8/8/8/8/K7 b - -", Bitbases.DRAW),
+
+        new Known(Endgame.KBNK, "4k3/8/8/8/8/8/8/2B1KN2 w - -", Bitbases.WIN),
+        new Known(Endgame.KBNK, "4k3/8/8/8/8/8/8/2B1KN2 b - -", Bitbases.LOSS),
+        new Known(Endgame.KBNK, "7k/4N3/6K1/4B3/8/8/8/8 b - -", Bitbases.LOSS),
+        new Known(Endgame.KBNK, "k7/N7/8/8/8/8/7B/7K b - -", Bitbases.DRAW),
+    };
+
+    private static final class Known {
+        final Endgame endgame;
+        final String fen;
+        final int result;
+
+        Known(Endgame endgame, String fen, int result) {
+            this.endgame = endgame;
+            this.fen = fen;
+            this.result = result;
+        }
+    }
+
+    private final Endgame endgame;
+    private final Map<Endgame, byte[]> solved;
+    private final int squares;
+    private final int[] types;
+    private final byte[] state;
+    private final byte[] moves;
+    private final int[] sq;
+
+    private int[] current = new int[1 << 12];
+    private int[] next = new int[1 << 12];
+    private int currentSize, nextSize;
+    private int longestPly;
+
+    /** @param solved finished tables by endgame, for promotions */
+    private BitbaseGenerator(Endgame endgame, Map<Endgame, byte[]> solved) {
+        this.endgame = endgame;
+        this.solved = solved;
+        this.squares = endgame.squares();
+        this.types = new int[squares];
+        types[0] = types[1] = Position.KING;
+        for (int i = 0; i < endgame.pieceCount(); i++) types[2 + i] = endgame.pieceType(i);
+        this.state = new byte[endgame.size()];
+        this.moves = new byte[endgame.size()];
+        this.sq = new int[squares];
+    }
+
+    /** Solves {@code endgame}; the tables it promotes into must already be in {@code solved}. */
+    static byte[] solve(Endgame endgame, Map<Endgame, byte[]> solved) {
+        BitbaseGenerator generator = new BitbaseGenerator(endgame, solved);
+        long start = System.nanoTime();
+        generator.classify();
+        generator.retrograde();
+        generator.verify();
+        generator.report(System.nanoTime() - start);
+        return generator.state;
+    }
+
+    // ——————— initial classification ———————
+
+    private void classify() {
+        for (int idx = 0; idx < state.length; idx++) {
+            int side = decode(idx);
+            if (!isLegal(side)) continue;
+            state[idx] = UNKNOWN;
+            if (side == WEAK) {
+                int count = weakMoves(idx, false);
+                moves[idx] = (byte) count;
+                if (count == 0 && isWeakInCheck()) {
+                    state[idx] = WIN;
+                    push(idx, true);
+                }
+            } else if (promotionWins()) {
+                // wins one ply later than the mates; their distance is not tracked
+                state[idx] = WIN;
+                push(idx, false);
+            }
+        }
+    }
+
+    private boolean isLegal(int side) {
+        long occ = 0L;
+        for (int i = 0; i < squares; i++) {
+            long b = Bitboards.bit(sq[i]);
+            if ((occ & b) != 0) return false;
+            occ |= b;
+            if (types[i] == Position.PAWN && (Bitboards.rank(sq[i]) == 0 || Bitboards.rank(sq[i]) == 7)) return false;
+        }
+        if ((Attacks.king(sq[0]) & Bitboards.bit(sq[1])) != 0) return false;
+        // the weak king can't be in check when it is not its turn
+        return side == WEAK || (strongAttacks(occ, -1) & Bitboards.bit(sq[1])) == 0;
+    }
+
+    /**
+     * Legal moves of the weak king in the decoded position.
+     *
+     * @param verify count only moves into positions the strong side does not win
+     * @return the number of non-capturing moves, or {@link #ESCAPE} if a
+     *         piece can be taken safely
+     */
+    private int weakMoves(int idx, boolean verify) {
+        long occ = occupancy();
+        long withoutKing = occ & ~Bitboards.bit(sq[1]);
+        long attacked = strongAttacks(withoutKing, -1);
+        long targets = Attacks.king(sq[1]) & ~attacked;
+        for (int i = 2; i < squares; i++) {
+            long b = Bitboards.bit(sq[i]);
+            if ((Attacks.king(sq[1]) & b) != 0 && (strongAttacks(withoutKing, i) & b) == 0) return ESCAPE;
+        }
+
+        int count = 0;
+        int from = sq[1];
+        for (long t = targets & ~occ; t != 0; t &= t - 1) {
+            sq[1] = Bitboards.lsb(t);
+            if (!verify || state[encode(STRONG)] != WIN) count++;
+        }
+        sq[1] = from;
+        return count;
+    }
+
+    private boolean isWeakInCheck() {
+        long occ = occupancy();
+        return (strongAttacks(occ, -1) & Bitboards.bit(sq[1])) != 0;
+    }
+
+    /** True if pushing the pawn to the last rank wins, as a queen or else as a rook. */
+    private boolean promotionWins() {
+        for (int i = 2; i < squares; i++) {
+            if (types[i] != Position.PAWN || Bitboards.rank(sq[i]) != 6) continue;
+            int to = sq[i] + 8;
+            if (to == sq[0] || to == sq[1]) continue;
+            if (solved.get(Endgame.KQK)[Endgame.KQK.index(WEAK, sq[0], sq[1], to, 0)] == WIN) return true;
+            if (solved.get(Endgame.KRK)[Endgame.KRK.index(WEAK, sq[0], sq[1], to, 0)] == WIN) return true;
+        }
+        return false;
+    }
+
+    // ——————— retrograde analysis ———————
+
+    private void retrograde() {
+        int ply = 0;
+        // mates were pushed to the current ply, promotion wins to the next
+        while (currentSize > 0 || nextSize > 0) {
+            for (int k = 0; k < currentSize; k++) {
+                int idx = current[k];
+                if (decode(idx) == WEAK) {
+                    strongPredecessors();
+                } else {
+                    weakPredecessors();
+                }
+            }
+            int[] t = current;
+            current = next;
+            next = t;
+            currentSize = nextSize;
+            nextSize = 0;
+            if (currentSize > 0) {
+                ply++;
+                if (decode(current[0]) == STRONG) longestPly = ply;
+            }
+        }
+    }
+
+    /** Strong-side positions that can move into the decoded lost one all win. */
+    private void strongPredecessors() {
+        long occ = occupancy();
+        for (int i = 0; i < squares; i++) {
+            if (i == 1) continue;
+            int to = sq[i];
+            long origins;
+            if (types[i] == Position.PAWN) {
+                origins = 0L;
+                if (to >= 16 && (occ & Bitboards.bit(to - 8)) == 0) {
+                    origins |= Bitboards.bit(to - 8);
+                    if (Bitboards.rank(to) == 3 && (occ & Bitboards.bit(to - 16)) == 0) origins |= Bitboards.bit(to - 16);
+                }
+            } else {
+                origins = Attacks.of(types[i], Position.WHITE, to, occ) & ~occ;
+            }
+            for (; origins != 0; origins &= origins - 1) {
+                sq[i] = Bitboards.lsb(origins);
+                int q = encode(STRONG);
+                if (state[q] == UNKNOWN) {
+                    state[q] = WIN;
+                    push(q, false);
+                }
+            }
+            sq[i] = to;
+        }
+    }
+
+    /** Weak-king positions that can move into the decoded won one lose a way out. */
+    private void weakPredecessors() {
+        long occ = occupancy();
+        int to = sq[1];
+        for (long origins = Attacks.king(to) & ~occ; origins != 0; origins &= origins - 1) {
+            sq[1] = Bitboards.lsb(origins);
+            int r = encode(WEAK);
+            if (state[r] == UNKNOWN && moves[r] > 0 && --moves[r] == 0) {
+                state[r] = WIN;
+                push(r, false);
+            }
+        }
+        sq[1] = to;
+    }
+
+    private void push(int idx, boolean now) {
+        if (now) {
+            if (currentSize == current.length) current = Arrays.copyOf(current, currentSize * 2);
+            current[currentSize++] = idx;
+        } else {
+            if (nextSize == next.length) next = Arrays.copyOf(next, nextSize * 2);
+            next[nextSize++] = idx;
+        }
+    }
+
+    // ——————— verification ———————
+
+    /** Re-derives every position from its successors with forward moves. */
+    private void verify() {
+        for (int idx = 0; idx < state.length; idx++) {
+            if (state[idx] == ILLEGAL) continue;
+            boolean win = decode(idx) == WEAK ? weakLoses(idx) : strongWins();
+            if (win != (state[idx] == WIN)) {
+                throw new IllegalStateException(endgame + " inconsistent at index " + idx);
+            }
+        }
+        int expected = expectedLongestMate(endgame);
+        if (expected > 0 && (longestPly + 1) / 2 != expected) {
+            throw new IllegalStateException(endgame + ": longest mate is " + (longestPly + 1) / 2
+                + " moves, published figure is " + expected);
+        }
+        for (Known known : KNOWN) {
+            if (known.endgame != endgame) continue;
+            int result = resultOf(Fen.load(known.fen));
+            if (result != known.result) {
+                throw new IllegalStateException(endgame + ": " + known.fen + " comes out as " + result
+                    + ", known result is " + known.result);
+            }
+        }
+    }
+
+    /** Result for the side to move, as {@link Bitbases#probe} gives it, of a position with white strong. */
+    private int resultOf(Position pos) {
+        int first = 0, second = 0;
+        for (int i = 0; i < endgame.pieceCount(); i++) {
+            int square = Bitboards.lsb(pos.pieces(Position.WHITE, endgame.pieceType(i)));
+            if (i == 0) first = square; else second = square;
+        }
+        int weakToMove = pos.getSideToMove() == Position.WHITE ? 0 : 1;
+        int idx = endgame.index(weakToMove, pos.kingSquare(Position.WHITE), pos.kingSquare(Position.BLACK), first, second);
+        if (state[idx] == ILLEGAL) throw new IllegalStateException(endgame + ": known position is illegal");
+        if (state[idx] != WIN) return Bitbases.DRAW;
+        return weakToMove == 0 ? Bitbases.WIN : Bitbases.LOSS;
+    }
+
+    private boolean weakLoses(int idx) {
+        int total = weakMoves(idx, false);
+        if (total == ESCAPE) return false;
+        if (total == 0) return isWeakInCheck();
+        return weakMoves(idx, true) == 0;
+    }
+
+    private boolean strongWins() {
+        if (promotionWins()) return true;
+        long occ = occupancy();
+        for (int i = 0; i < squares; i++) {
+            if (i == 1) continue;
+            int from = sq[i];
+            long targets;
+            if (types[i] == Position.PAWN) {
+                targets = 0L;
+                if (Bitboards.rank(from) < 6 && (occ & Bitboards.bit(from + 8)) == 0) {
+                    targets |= Bitboards.bit(from + 8);
+                    if (Bitboards.rank(from) == 1 && (occ & Bitboards.bit(from + 16)) == 0) targets |= Bitboards.bit(from + 16);
+                }
+            } else {
+                targets = Attacks.of(types[i], Position.WHITE, from, occ) & ~occ;
+            }
+            for (; targets != 0; targets &= targets - 1) {
+                sq[i] = Bitboards.lsb(targets);
+                // illegal successors (king next to king) read as ILLEGAL, not WIN
+                boolean win = state[encode(WEAK)] == WIN;
+                if (win) {
+                    sq[i] = from;
+                    return true;
+                }
+            }
+            sq[i] = from;
+        }
+        return false;
+    }
+
+    // ——————— helpers ———————
+
+    /** Unpacks {@code idx} into {@link #sq} and returns the side to move. */
+    private int decode(int idx) {
+        for (int i = squares - 1; i >= 0; i--) {
+            sq[i] = idx & 63;
+            idx >>>= 6;
+        }
+        return idx;
+    }
+
+    private int encode(int side) {
+        int idx = side;
+        for (int i = 0; i < squares; i++) idx = idx << 6 | sq[i];
+        return idx;
+    }
+
+    private long occupancy() {
+        long occ = 0L;
+        for (int i = 0; i < squares; i++) occ |= Bitboards.bit(sq[i]);
+        return occ;
+    }
+
+    /** Squares attacked by the strong side, leaving out the piece in slot {@code skip}. */
+    private long strongAttacks(long occ, int skip) {
+        long attacks = 0L;
+        for (int i = 0; i < squares; i++) {
+            if (i == 1 || i == skip) continue;
+            attacks |= Attacks.of(types[i], Position.WHITE, sq[i], occ);
+        }
+        return attacks;
+    }
+
+    private void report(long nanos) {
+        long legal = 0, strongWins = 0, strongLegal = 0, weakLosses = 0;
+        int half = state.length / 2;
+        for (int idx = 0; idx < state.length; idx++) {
+            if (state[idx] == ILLEGAL) continue;
+            legal++;
+            if (idx < half) {
+                strongLegal++;
+                if (state[idx] == WIN) strongWins++;
+            } else if (state[idx] == WIN) {
+                weakLosses++;
+            }
+        }
+        System.out.println(String.format(Locale.ROOT,
+            "%-4s %,11d positions, strong side to move wins %,d of %,d, weak side to move loses %,d of %,d%s, %,d ms",
+            endgame, legal, strongWins, strongLegal, weakLosses, legal - strongLegal,
+            endgame == Endgame.KPK ? "" : ", longest mate " + (longestPly + 1) / 2 + " moves",
+            nanos / 1_000_000));
+    }
+
+    /** One bit per index, set where the strong side wins, lowest index in the lowest bit. */
+    private static void write(Endgame endgame, byte[] state, Path dir) throws IOException {
+        byte[] bits = new byte[state.length / 8];
+        for (int idx = 0; idx < state.length; idx++) {
+            if (state[idx] == WIN) bits[idx >>> 3] |= (byte) (1 << (idx & 7));
+        }
+        try (OutputStream out = Files.newOutputStream(dir.resolve(endgame.fileName()))) {
+            out.write(bits);
+        }
+    }
+
+    public static void main(String[] args) throws IOException {
+        Path dir = Paths.get(args.length > 0 ? args[0] : "bitbases");
+        Files.createDirectories(dir);
+        Map<Endgame, byte[]> solved = new EnumMap<>(Endgame.class);
+        for (Endgame endgame : Endgame.values()) {
+            byte[] state = solve(endgame, solved);
+            write(endgame, state, dir);
+            // only the single-piece tables are promoted into
+            if (endgame.pieceCount() == 1) solved.put(endgame, state);
+        }
+        System.out.println("Bitbases written to " + dir.toAbsolutePath());
+    }
+}
@@ -0,0 +1,143 @@
+package com.mygdx.chess.endgame;
+
+import com.mygdx.chess.bitboard.Bitboards;
+import com.mygdx.chess.bitboard.Position;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Win/draw bitbases for the {@link Endgame}s, as written by
+ * {@link BitbaseGenerator}: one bit per position, set when the strong side
+ * wins with best play. The files are memory-mapped, so a probe is an index
+ * computation and one byte read. Read-only once opened, and safe to probe
+ * from any number of threads.
+ */
+public final class Bitbases {
+    public static final int LOSS = -1;
+    public static final int DRAW = 0;
+    public static final int WIN  = 1;
+    /** The position is not covered by a loaded table. */
+    public static final int UNKNOWN = -2;
+
+    private final ByteBuffer[] tables = new ByteBuffer[Endgame.values().length];
+
+    private Bitbases() { /* no-op */ }
+
+    /**
+     * Maps every table found in {@code dir}; missing ones are left out.
+     *
+     * @throws IOException if a table can't be read or has the wrong size
+     */
+    public static Bitbases open(Path dir) throws IOException {
+        Bitbases bitbases = new Bitbases();
+        for (Endgame endgame : Endgame.values()) {
+            Path file = dir.resolve(endgame.fileName());
+            if (!Files.isRegularFile(file)) continue;
+            // the mapping stays valid after the channel is closed
+            try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+                if (channel.size() != endgame.size() / 8) {
+                    throw new IOException("Wrong size for " + endgame + " bitbase: " + file);
+                }
+                bitbases.tables[endgame.ordinal()] = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            }
+        }
+        return bitbases;
+    }
+
+    public boolean has(Endgame endgame) {
+        return tables[endgame.ordinal()] != null;
+    }
+
+    /**
+     * @return {@link #WIN}, {@link #DRAW} or {@link #LOSS} for the side to
+     *         move, or {@link #UNKNOWN} if no loaded table covers the position
+     */
+    public int probe(Position pos) {
+        long occupied = pos.occupied();
+        if (Bitboards.popCount(occupied) > 4 || pos.getCastlingRights() != 0) return UNKNOWN;
+
+        int strong = strongSide(pos);
+        if (strong == Position.EMPTY) return UNKNOWN;
+        long extra = pos.occupancy(strong) & ~pos.pieces(strong, Position.KING);
+
+        Endgame endgame;
+        int first, second = 0;
+        if (Bitboards.popCount(extra) == 1) {
+            first = Bitboards.lsb(extra);
+            switch (Position.typeOf(pos.pieceAt(first))) {
+                case Position.QUEEN: endgame = Endgame.KQK; break;
+                case Position.ROOK:  endgame = Endgame.KRK; break;
+                case Position.PAWN:  endgame = Endgame.KPK; break;
+                default: return UNKNOWN;
+            }
+        } else if (Bitboards.popCount(pos.pieces(strong, Position.BISHOP)) == 1
+            && Bitboards.popCount(pos.pieces(strong, Position.KNIGHT)) == 1) {
+            endgame = Endgame.KBNK;
+            first = Bitboards.lsb(pos.pieces(strong, Position.BISHOP));
+            second = Bitboards.lsb(pos.pieces(strong, Position.KNIGHT));
+        } else {
+            return UNKNOWN;
+        }
+
+        ByteBuffer table = tables[endgame.ordinal()];
+        if (table == null) return UNKNOWN;
+        int flip = strong == Position.WHITE ? 0 : 56;
+        int weakToMove = pos.getSideToMove() == strong ? 0 : 1;
+        int idx = endgame.index(weakToMove,
+            pos.kingSquare(strong) ^ flip, pos.kingSquare(strong ^ 1) ^ flip, first ^ flip, second ^ flip);
+        if ((table.get(idx >>> 3) & (1 << (idx & 7))) == 0) return DRAW;
+        return weakToMove == 0 ? WIN : LOSS;
+    }
+
+    /**
+     * How far the strong side of a won bitbase position has come: weak king
+     * pushed to the edge (to a corner the bishop covers in KBNK), kings close,
+     * pawn advanced. Added to a won score so the search makes progress
+     * towards mate instead of shuffling between equally won positions.
+     */
+    public static int progress(Position pos) {
+        int strong = strongSide(pos);
+        if (strong == Position.EMPTY) return 0;
+        int strongKing = pos.kingSquare(strong);
+        int weakKing = pos.kingSquare(strong ^ 1);
+
+        int score = 10 * (7 - distance(strongKing, weakKing));
+        long bishops = pos.pieces(strong, Position.BISHOP);
+        if (bishops != 0 && pos.pieces(strong, Position.KNIGHT) != 0) {
+            // a1 and h8 are dark; mate is only forced in a corner of the bishop's colour
+            int b = Bitboards.lsb(bishops);
+            boolean dark = ((Bitboards.file(b) + Bitboards.rank(b)) & 1) == 0;
+            int corner = dark
+                ? Math.min(distance(weakKing, 0), distance(weakKing, 63))
+                : Math.min(distance(weakKing, 7), distance(weakKing, 56));
+            score += 20 * (7 - corner);
+        } else {
+            int file = Bitboards.file(weakKing), rank = Bitboards.rank(weakKing);
+            score += 20 * Math.max(Math.abs(2 * file - 7), Math.abs(2 * rank - 7)) / 2;
+        }
+        long pawns = pos.pieces(strong, Position.PAWN);
+        if (pawns != 0) {
+            int rank = Bitboards.rank(Bitboards.lsb(pawns));
+            score += 30 * (strong == Position.WHITE ? rank : 7 - rank);
+        }
+        return score;
+    }
+
+    /** The side with more than a bare king when the other has only its king, else EMPTY. */
+    private static int strongSide(Position pos) {
+        boolean white = pos.occupancy(Position.WHITE) != pos.pieces(Position.WHITE, Position.KING);
+        boolean black = pos.occupancy(Position.BLACK) != pos.pieces(Position.BLACK, Position.KING);
+        if (white == black) return Position.EMPTY;
+        return white ? Position.WHITE : Position.BLACK;
+    }
+
+    private static int distance(int a, int b) {
+        return Math.max(Math.abs(Bitboards.file(a) - Bitboards.file(b)),
+            Math.abs(Bitboards.rank(a) - Bitboards.rank(b)));
+    }
+}
@@ -0,0 +1,46 @@
+package com.mygdx.chess.endgame;
+
+import com.mygdx.chess.bitboard.Position;
+
+import java.util.Locale;
+
+/**
+ * Material sets covered by the bitbases: a king and one or two pieces
+ * against a bare king. Tables are indexed as if the strong side were white;
+ * positions with black as the strong side are mirrored top to bottom.
+ * Declared in generation order, since KPK promotes into KQK and KRK.
+ */
+public enum Endgame {
+    KQK(Position.QUEEN),
+    KRK(Position.ROOK),
+    KPK(Position.PAWN),
+    KBNK(Position.BISHOP, Position.KNIGHT);
+
+    private final int[] pieces;
+
+    Endgame(int... pieces) {
+        this.pieces = pieces;
+    }
+
+    /** Strong-side pieces besides the king. */
+    public int pieceCount()        { return pieces.length; }
+
+    public int pieceType(int i)    { return pieces[i]; }
+
+    /** Squares in an index: both kings, then the pieces in declaration order. */
+    public int squares()           { return 2 + pieces.length; }
+
+    /** Number of indices, and of bits in the table. */
+    public int size()              { return 2 << (6 * squares()); }
+
+    public String fileName()       { return name().toLowerCase(Locale.ROOT) + ".bin"; }
+
+    /**
+     * @param weakToMove 0 when the strong side is to move, 1 otherwise
+     * @param second     ignored for single-piece endgames
+     */
+    public int index(int weakToMove, int strongKing, int weakKing, int first, int second) {
+        int idx = ((weakToMove << 6 | strongKing) << 6 | weakKing) << 6 | first;
+        return pieces.length == 2 ? idx << 6 | second : idx;
+    }
+}
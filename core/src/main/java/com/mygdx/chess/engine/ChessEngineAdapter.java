@@ -1,16 +1,51 @@
 package com.mygdx.chess.engine;
 
 import java.io.IOException;
-import java.util.List;
+import java.util.concurrent.CompletableFuture;
 import com.mygdx.chess.screens.BotLevelScreen.Difficulty;
 
 /** Adapter interface to decouple BotGameScreen from concrete UCI engine. */
 public interface ChessEngineAdapter {
     void startEngine() throws IOException;
     void sendCommand(String command) throws IOException;
+    /** The next line of engine output, or null if none is waiting; never blocks. */
     String readResponse() throws IOException;
     void stopEngine();
     void setDifficulty(Difficulty difficulty) throws IOException;
-    String getBestMove(String movesHistory) throws IOException;
-}
+    /** Tells the engine the next position is from a different game ({@code ucinewgame}). */
+    void newGame() throws IOException;
+    /**
+     * Completes once the engine has processed every earlier command
+     * ({@code isready}); a health check for idle engines.
+     */
+    CompletableFuture<Void> isReady();
+    /**
+     * Starts a search and returns at once. Cancelling the future, or timing
+     * it out with {@link Futures#orTimeout}, stops the search.
+     *
+     * @param position arguments of the UCI {@code position} command,
+     *                 e.g. from {@link Uci#position}
+     * @return completes with the engine's move in coordinate notation, or
+     *         null if it has none; fails if the engine does
+     */
+    CompletableFuture<String> getBestMove(String position);
+
+    /**
+     * The reply the engine expects to the move of its last finished search,
+     * or null if it has no prediction.
+     */
+    String getExpectedReply();
 
+    /**
+     * Thinks on the opponent's time ({@code go ponder}): searches
+     * {@code position}, which ends with the expected reply, until
+     * {@link #ponderHit()}. Cancel the future if a different move is played.
+     *
+     * @return completes with the engine's move once the prediction is
+     *         confirmed and the normal search budget is used up
+     */
+    CompletableFuture<String> ponder(String position);
+
+    /** The expected reply was played: the ponder search becomes a normal one. */
+    void ponderHit() throws IOException;
+}
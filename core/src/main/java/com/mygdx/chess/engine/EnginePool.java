@@ -0,0 +1,359 @@
+package com.mygdx.chess.engine;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A bounded set of started engines shared by games, so each game doesn't
+ * pay for a process launch and the {@code uci} handshake. Engines are
+ * started on demand, up to the capacity, on a thread of the pool's own;
+ * {@link #lease()} never blocks. A returned engine is sent
+ * {@code ucinewgame} and must then answer {@code isready} in time, or it
+ * is stopped and replaced by a fresh one on the next lease.
+ * <p>
+ * Thread-safe: any number of games may lease and return concurrently.
+ */
+public final class EnginePool implements Closeable {
+    public static final long DEFAULT_HEALTH_TIMEOUT_MS = 2_000;
+
+    /** Creates and starts an engine; runs on the pool's starter thread. */
+    public interface Factory {
+        ChessEngineAdapter create() throws IOException;
+    }
+
+    private final int capacity;
+    private final Factory factory;
+    private final long healthTimeoutMillis;
+    private final ExecutorService starter = Executors.newSingleThreadExecutor(r -> {
+        Thread thread = new Thread(r, "engine-starter");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    // guarded by this
+    private final Deque<PooledEngine> idle = new ArrayDeque<>();
+    private final Deque<CompletableFuture<Lease>> waiters = new ArrayDeque<>();
+    private final List<PooledEngine> engines = new ArrayList<>();
+    private int live;               // started or starting
+    private int nextId = 1;
+    private long retired;
+    private boolean closed;
+
+    public EnginePool(int capacity, Factory factory) {
+        this(capacity, DEFAULT_HEALTH_TIMEOUT_MS, factory);
+    }
+
+    /** @param healthTimeoutMillis how long a returned engine may take to answer {@code isready} */
+    public EnginePool(int capacity, long healthTimeoutMillis, Factory factory) {
+        if (capacity < 1) throw new IllegalArgumentException("Pool capacity must be at least 1: " + capacity);
+        this.capacity = capacity;
+        this.factory = factory;
+        this.healthTimeoutMillis = healthTimeoutMillis;
+    }
+
+    /**
+     * Hands out an idle engine, or the next one to start or come back.
+     * Cancelling the future, or timing it out with
+     * {@link Futures#orTimeout}, gives up the place in line.
+     *
+     * @return completes with the lease; fails if the engine can't be
+     *         started or the pool is closed
+     */
+    public CompletableFuture<Lease> lease() {
+        CompletableFuture<Lease> result = new CompletableFuture<>();
+        PooledEngine engine;
+        boolean start = false;
+        synchronized (this) {
+            if (closed) {
+                result.completeExceptionally(new IllegalStateException("Engine pool is closed"));
+                return result;
+            }
+            engine = idle.poll();
+            if (engine == null) {
+                waiters.add(result);
+                if (live < capacity) {
+                    live++;
+                    start = true;
+                }
+            }
+        }
+        if (engine != null) {
+            engine.leased();
+            result.complete(new Lease(engine));
+            return result;
+        }
+        result.whenComplete((lease, error) -> {
+            if (error != null) {
+                synchronized (this) {
+                    waiters.remove(result);
+                }
+            }
+        });
+        if (start && !startAsync()) {
+            result.completeExceptionally(new IllegalStateException("Engine pool is closed"));
+        }
+        return result;
+    }
+
+    /** Engines started or starting, leased or not. */
+    public synchronized int size() {
+        return live;
+    }
+
+    public synchronized int idleCount() {
+        return idle.size();
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    /** Engines stopped after failing a health check or to start. */
+    public synchronized long getRetired() {
+        return retired;
+    }
+
+    /** Activity of every running engine, in start order. */
+    public List<EngineStats> getStats() {
+        List<PooledEngine> running;
+        synchronized (this) {
+            running = new ArrayList<>(engines);
+        }
+        List<EngineStats> stats = new ArrayList<>(running.size());
+        for (PooledEngine engine : running) stats.add(engine.snapshot());
+        return stats;
+    }
+
+    /**
+     * Stops the idle engines and fails waiting leases. Leased engines are
+     * stopped as they come back.
+     */
+    @Override
+    public void close() {
+        List<PooledEngine> stopping;
+        List<CompletableFuture<Lease>> waiting;
+        synchronized (this) {
+            closed = true;
+            stopping = new ArrayList<>(idle);
+            waiting = new ArrayList<>(waiters);
+            idle.clear();
+            waiters.clear();
+            live -= stopping.size();
+            engines.removeAll(stopping);
+        }
+        for (PooledEngine engine : stopping) engine.adapter.stopEngine();
+        for (CompletableFuture<Lease> waiter : waiting) {
+            waiter.completeExceptionally(new IllegalStateException("Engine pool is closed"));
+        }
+        starter.shutdown();
+    }
+
+    private void startEngine() {
+        ChessEngineAdapter adapter;
+        try {
+            adapter = factory.create();
+        } catch (IOException | RuntimeException e) {
+            CompletableFuture<Lease> waiter;
+            boolean retry = false;
+            synchronized (this) {
+                live--;
+                retired++;
+                waiter = waiters.poll();
+                // the others were counting on this engine too
+                if (!closed && !waiters.isEmpty() && live < capacity) {
+                    live++;
+                    retry = true;
+                }
+            }
+            // one failure per attempt, and an attempt for each waiter left,
+            // so a broken factory can't leave a lease hanging
+            if (waiter != null) waiter.completeExceptionally(e);
+            if (retry) startAsync();
+            return;
+        }
+        PooledEngine engine;
+        synchronized (this) {
+            engine = new PooledEngine(nextId++, adapter);
+            engines.add(engine);
+        }
+        offer(engine);
+    }
+
+    /** Gives {@code engine} to the oldest waiter still interested, else makes it idle. */
+    private void offer(PooledEngine engine) {
+        while (true) {
+            CompletableFuture<Lease> waiter;
+            synchronized (this) {
+                if (closed) break;
+                waiter = waiters.poll();
+                if (waiter == null) {
+                    // most recently used first: its caches are the warmest
+                    idle.push(engine);
+                    return;
+                }
+            }
+            if (waiter.complete(new Lease(engine))) {
+                engine.leased();
+                return;
+            }
+        }
+        retire(engine);
+    }
+
+    private void giveBack(PooledEngine engine) {
+        CompletableFuture<Void> check;
+        try {
+            engine.adapter.newGame();
+            check = Futures.orTimeout(engine.adapter.isReady(), healthTimeoutMillis, TimeUnit.MILLISECONDS);
+        } catch (IOException | RuntimeException e) {
+            check = new CompletableFuture<>();
+            check.completeExceptionally(e);
+        }
+        check.whenComplete((ok, error) -> {
+            if (error == null) {
+                offer(engine);
+            } else {
+                retire(engine);
+            }
+        });
+    }
+
+    private void retire(PooledEngine engine) {
+        engine.adapter.stopEngine();
+        boolean replace = false;
+        synchronized (this) {
+            live--;
+            engines.remove(engine);
+            if (!closed) {
+                retired++;
+                // someone is waiting for the engine that just died
+                if (!waiters.isEmpty() && live < capacity) {
+                    live++;
+                    replace = true;
+                }
+            }
+        }
+        if (replace) startAsync();
+    }
+
+    /**
+     * Starts an engine already counted in {@code live} on the starter thread.
+     *
+     * @return false if the pool was closed meanwhile; close() has failed the
+     *         waiters by then
+     */
+    private boolean startAsync() {
+        try {
+            starter.execute(this::startEngine);
+            return true;
+        } catch (RejectedExecutionException e) {
+            synchronized (this) {
+                live--;
+            }
+            return false;
+        }
+    }
+
+    /**
+     * One engine, on loan until {@link #close()}. Move requests made through
+     * the lease are timed for {@link EnginePool#getStats()}; the engine
+     * itself is available for options and other commands.
+     */
+    public final class Lease implements Closeable {
+        private final PooledEngine engine;
+        // guarded by this
+        private CompletableFuture<String> lastRequest;
+        private boolean returned;
+
+        private Lease(PooledEngine engine) {
+            this.engine = engine;
+        }
+
+        public ChessEngineAdapter engine() {
+            return engine.adapter;
+        }
+
+        /** Same as {@link EngineStats#getId()} of this engine. */
+        public int getEngineId() {
+            return engine.id;
+        }
+
+        /** {@link ChessEngineAdapter#getBestMove}, timed. */
+        public synchronized CompletableFuture<String> getBestMove(String position) {
+            if (returned) throw new IllegalStateException("Lease already returned");
+            long start = System.nanoTime();
+            CompletableFuture<String> result = engine.adapter.getBestMove(position);
+            result.whenComplete((move, error) -> engine.record(System.nanoTime() - start, error));
+            lastRequest = result;
+            return result;
+        }
+
+        /** {@link ChessEngineAdapter#ponder}; not timed, since it lasts as long as the opponent thinks. */
+        public synchronized CompletableFuture<String> ponder(String position) {
+            if (returned) throw new IllegalStateException("Lease already returned");
+            CompletableFuture<String> result = engine.adapter.ponder(position);
+            lastRequest = result;
+            return result;
+        }
+
+        /** Returns the engine, stopping a search still running for this lease. Idempotent. */
+        @Override
+        public void close() {
+            CompletableFuture<String> running;
+            synchronized (this) {
+                if (returned) return;
+                returned = true;
+                running = lastRequest;
+            }
+            if (running != null) running.cancel(true);
+            giveBack(engine);
+        }
+    }
+
+    private static final class PooledEngine {
+        final int id;
+        final ChessEngineAdapter adapter;
+
+        // guarded by this
+        private long leases, requests, failures, answered;
+        private long totalNanos, maxNanos, lastNanos;
+
+        PooledEngine(int id, ChessEngineAdapter adapter) {
+            this.id = id;
+            this.adapter = adapter;
+        }
+
+        synchronized void leased() {
+            leases++;
+        }
+
+        synchronized void record(long nanos, Throwable error) {
+            requests++;
+            if (error == null) {
+                answered++;
+                totalNanos += nanos;
+                maxNanos = Math.max(maxNanos, nanos);
+                lastNanos = nanos;
+            } else if (!(error instanceof CancellationException)
+                && !(error instanceof CompletionException && error.getCause() instanceof CancellationException)) {
+                failures++;
+            }
+        }
+
+        synchronized EngineStats snapshot() {
+            return new EngineStats(id, adapter.getClass().getSimpleName(), leases, requests, failures,
+                answered, totalNanos, maxNanos, lastNanos);
+        }
+    }
+}
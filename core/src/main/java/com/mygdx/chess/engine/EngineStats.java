@@ -0,0 +1,60 @@
+package com.mygdx.chess.engine;
+
+import java.util.Locale;
+
+/**
+ * Snapshot of one pooled engine's activity, from {@link EnginePool#getStats()}.
+ * Latencies cover the move requests that produced an answer; cancelled
+ * requests are counted but not timed.
+ */
+public final class EngineStats {
+    private final int id;
+    private final String engine;
+    private final long leases;
+    private final long requests;
+    private final long failures;
+    private final long answered;
+    private final long totalNanos;
+    private final long maxNanos;
+    private final long lastNanos;
+
+    EngineStats(int id, String engine, long leases, long requests, long failures,
+                long answered, long totalNanos, long maxNanos, long lastNanos) {
+        this.id = id;
+        this.engine = engine;
+        this.leases = leases;
+        this.requests = requests;
+        this.failures = failures;
+        this.answered = answered;
+        this.totalNanos = totalNanos;
+        this.maxNanos = maxNanos;
+        this.lastNanos = lastNanos;
+    }
+
+    /** Pool-wide number of the instance, from 1 in start order. */
+    public int getId()             { return id; }
+
+    /** Adapter class of the instance. */
+    public String getEngine()      { return engine; }
+
+    public long getLeases()        { return leases; }
+
+    /** Move requests sent, however they ended. */
+    public long getRequests()      { return requests; }
+
+    /** Requests that failed or timed out. */
+    public long getFailures()      { return failures; }
+
+    public double getMeanMillis()  { return answered == 0 ? 0 : totalNanos / 1e6 / answered; }
+
+    public double getMaxMillis()   { return maxNanos / 1e6; }
+
+    public double getLastMillis()  { return lastNanos / 1e6; }
+
+    @Override
+    public String toString() {
+        return String.format(Locale.ROOT,
+            "#%d %s: %d leases, %d requests, %d failed, mean %.1f ms, max %.1f ms, last %.1f ms",
+            id, engine, leases, requests, failures, getMeanMillis(), getMaxMillis(), getLastMillis());
+    }
+}
@@ -0,0 +1,51 @@
+package com.mygdx.chess.engine;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Timeouts for engine requests. Java 8's {@link CompletableFuture} has no
+ * {@code orTimeout}, so one shared daemon timer thread stands in for it;
+ * the adapters also use it for delayed stops.
+ */
+public final class Futures {
+    private static final ScheduledThreadPoolExecutor TIMER = new ScheduledThreadPoolExecutor(1, r -> {
+        Thread thread = Executors.defaultThreadFactory().newThread(r);
+        thread.setName("engine-timeout");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    static {
+        // requests normally finish well before their deadline
+        TIMER.setRemoveOnCancelPolicy(true);
+    }
+
+    private Futures() { /* no-op */ }
+
+    /** Runs {@code action} once after {@code delay} on the timer thread; it must be quick. */
+    static ScheduledFuture<?> schedule(Runnable action, long delay, TimeUnit unit) {
+        return TIMER.schedule(action, delay, unit);
+    }
+
+    /**
+     * Completes {@code future} with a {@link TimeoutException} unless it
+     * completes within {@code timeout}, like Java 9's
+     * {@code CompletableFuture.orTimeout}. Engine requests treat that like a
+     * cancellation and stop the search.
+     *
+     * @return {@code future}
+     */
+    public static <T> CompletableFuture<T> orTimeout(CompletableFuture<T> future, long timeout, TimeUnit unit) {
+        if (future.isDone()) return future;
+        ScheduledFuture<?> timer = TIMER.schedule(
+            () -> future.completeExceptionally(new TimeoutException("No answer within " + unit.toMillis(timeout) + " ms")),
+            timeout, unit);
+        future.whenComplete((result, error) -> timer.cancel(false));
+        return future;
+    }
+}
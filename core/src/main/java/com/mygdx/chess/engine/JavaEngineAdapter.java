@@ -0,0 +1,343 @@
+package com.mygdx.chess.engine;
+
+import com.mygdx.chess.bitboard.MoveList;
+import com.mygdx.chess.bitboard.PackedMove;
+import com.mygdx.chess.bitboard.Position;
+import com.mygdx.chess.endgame.Bitbases;
+import com.mygdx.chess.screens.BotLevelScreen.Difficulty;
+import com.mygdx.chess.search.Evaluation;
+import com.mygdx.chess.search.Evaluator;
+import com.mygdx.chess.search.ParallelSearch;
+import com.mygdx.chess.search.PawnHashTable;
+import com.mygdx.chess.search.Search;
+import com.mygdx.chess.search.SearchLimits;
+import com.mygdx.chess.search.TranspositionTable;
+
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * In-process engine built on {@link Search}; needs no external binary and
+ * no pipe round-trips. Difficulty maps to depth, node and time budgets.
+ * Search results are kept in a transposition table for the whole game,
+ * so each move reuses the work of the previous ones. The search runs on
+ * one thread per core by default (see {@link ParallelSearch}).
+ * The text methods understand enough UCI ({@code uci}, {@code isready},
+ * {@code ucinewgame}, {@code setoption name Hash/Threads/PawnHash}, {@code position},
+ * {@code go}, {@code stop}) for the
+ * adapter to stand in for {@link StockfishAdapter}; replies are queued for
+ * {@link #readResponse()}, which returns null instead of blocking.
+ * {@link #getBestMove} and {@link #ponder} search on a thread of their own.
+ * Commands come from one thread; only {@code stop} and
+ * {@link #stopEngine()} may be sent while a search runs.
+ */
+public class JavaEngineAdapter implements ChessEngineAdapter {
+    private final TranspositionTable tt;
+    // replaced between searches, read by stop() during one
+    private volatile ParallelSearch search;
+    private final ExecutorService searcher = Executors.newSingleThreadExecutor(r -> {
+        Thread thread = new Thread(r, "java-engine");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private int threads;
+    private int pawnHashMegabytes = PawnHashTable.DEFAULT_MEGABYTES;
+    private Bitbases bitbases;
+    private volatile String expectedReply;
+    // the running ponder search, until ponderhit
+    private volatile CompletableFuture<Void> ponderHit;
+    private volatile CompletableFuture<String> ponderResult;
+    private volatile long ponderStart;
+    private final Position position = new Position();
+    private final Queue<String> output = new ConcurrentLinkedQueue<>();
+    private Difficulty difficulty;
+
+    public JavaEngineAdapter(Difficulty difficulty) {
+        this(difficulty, TranspositionTable.DEFAULT_MEGABYTES, ParallelSearch.defaultThreads());
+    }
+
+    /**
+     * @param hashMegabytes transposition table size
+     * @param threads       search threads, the calling one included
+     */
+    public JavaEngineAdapter(Difficulty difficulty, int hashMegabytes, int threads) {
+        this.difficulty = difficulty;
+        this.tt = new TranspositionTable(hashMegabytes);
+        this.threads = threads;
+        this.search = createSearch();
+    }
+
+    /** Replaces the search with one on {@code threads} threads; the table is kept. */
+    public void setThreads(int threads) {
+        this.threads = threads;
+        replaceSearch();
+    }
+
+    /** Gives every search thread a pawn hash table of {@code megabytes}. */
+    public void setPawnHashSize(int megabytes) {
+        if (megabytes < 1) throw new IllegalArgumentException("Pawn hash size must be at least 1 MB: " + megabytes);
+        this.pawnHashMegabytes = megabytes;
+        replaceSearch();
+    }
+
+    /** Endgame tables for the search to score covered positions with; null for none. */
+    public void setBitbases(Bitbases bitbases) {
+        this.bitbases = bitbases;
+        search.setBitbases(bitbases);
+    }
+
+    private ParallelSearch createSearch() {
+        int megabytes = pawnHashMegabytes;
+        ParallelSearch created = new ParallelSearch(tt, threads, () -> new Evaluation(new PawnHashTable(megabytes)));
+        created.setBitbases(bitbases);
+        return created;
+    }
+
+    private void replaceSearch() {
+        ParallelSearch replacement = createSearch();
+        search.close();
+        search = replacement;
+    }
+
+    /** Search budget for a difficulty level. */
+    public static SearchLimits limitsFor(Difficulty difficulty) {
+        switch (difficulty) {
+            case LOW:
+                return new SearchLimits(2, 2_000, 100);
+            case MEDIUM:
+                return new SearchLimits(4, 100_000, 300);
+            default:
+                return SearchLimits.moveTime(500);
+        }
+    }
+
+    @Override
+    public void startEngine() {
+        newGame();
+    }
+
+    /**
+     * Forgets the previous game: start position and an empty table. Done on
+     * the search thread after any search still winding down, so an
+     * {@link #isReady()} sent next completes once it has happened.
+     */
+    @Override
+    public void newGame() {
+        try {
+            searcher.execute(() -> {
+                Uci.loadPosition("startpos", position);
+                tt.clear();
+            });
+        } catch (RejectedExecutionException e) {
+            // stopped: there is no game left to forget
+        }
+    }
+
+    @Override
+    public void setDifficulty(Difficulty difficulty) {
+        this.difficulty = difficulty;
+    }
+
+    /** Completes once every search requested so far has finished. */
+    @Override
+    public CompletableFuture<Void> isReady() {
+        CompletableFuture<Void> ready = new CompletableFuture<>();
+        try {
+            searcher.execute(() -> ready.complete(null));
+        } catch (RejectedExecutionException e) {
+            ready.completeExceptionally(new IllegalStateException("Engine stopped", e));
+        }
+        return ready;
+    }
+
+    @Override
+    public CompletableFuture<String> getBestMove(String positionArgs) {
+        return submit(positionArgs, limitsFor(difficulty), CompletableFuture.completedFuture(null));
+    }
+
+    @Override
+    public String getExpectedReply() {
+        return expectedReply;
+    }
+
+    /**
+     * Searches without a time limit until {@link #ponderHit()}; time spent
+     * pondering counts towards the difficulty's move time, as in Stockfish.
+     * Depth and node limits apply throughout.
+     */
+    @Override
+    public CompletableFuture<String> ponder(String positionArgs) {
+        SearchLimits limits = limitsFor(difficulty);
+        CompletableFuture<Void> hit = new CompletableFuture<>();
+        CompletableFuture<String> result = submit(positionArgs,
+            new SearchLimits(limits.getDepth(), limits.getNodes(), 0), hit);
+        ponderStart = System.nanoTime();
+        ponderHit = hit;
+        ponderResult = result;
+        return result;
+    }
+
+    @Override
+    public void ponderHit() {
+        CompletableFuture<Void> hit = ponderHit;
+        CompletableFuture<String> result = ponderResult;
+        if (hit == null || result.isDone()) return;
+        ponderHit = null;
+        ponderResult = null;
+        long millis = limitsFor(difficulty).getMoveTimeMillis();
+        if (millis > 0) {
+            ParallelSearch pondering = search;
+            long left = millis - TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - ponderStart);
+            if (left <= 0) {
+                pondering.stop();
+            } else {
+                ScheduledFuture<?> stop = Futures.schedule(pondering::stop, left, TimeUnit.MILLISECONDS);
+                result.whenComplete((move, error) -> stop.cancel(false));
+            }
+        }
+        hit.complete(null);
+    }
+
+    /**
+     * Queues a search on the search thread.
+     *
+     * @param answerDue the result is held back until this completes
+     */
+    private CompletableFuture<String> submit(String positionArgs, SearchLimits limits, CompletableFuture<Void> answerDue) {
+        CompletableFuture<String> result = new CompletableFuture<>();
+        try {
+            searcher.execute(() -> {
+                ParallelSearch running = search;
+                // a cancel before this point is seen by the check; one after
+                // it leaves a stop that run() honours, even for a ponder
+                // search without limits
+                running.resetStop();
+                if (result.isDone()) return;
+                try {
+                    Uci.loadPosition(positionArgs, position);
+                    int move = running.run(position, limits);
+                    MoveList pv = running.getPrincipalVariation();
+                    String answer = move == PackedMove.NONE ? null : PackedMove.toUci(move);
+                    String reply = pv.size() > 1 && pv.get(0) == move ? PackedMove.toUci(pv.get(1)) : null;
+                    answerDue.thenRun(() -> {
+                        if (!result.isDone()) expectedReply = reply;
+                        result.complete(answer);
+                    });
+                } catch (RuntimeException e) {
+                    result.completeExceptionally(e);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            result.completeExceptionally(new IllegalStateException("Engine stopped", e));
+        }
+        result.whenComplete((move, error) -> {
+            if (error != null) search.stop();
+        });
+        return result;
+    }
+
+    @Override
+    public void sendCommand(String command) {
+        String cmd = command.trim();
+        if (cmd.equals("uci")) {
+            output.add("id name Chess Java Engine");
+            output.add("option name Hash type spin default " + TranspositionTable.DEFAULT_MEGABYTES
+                + " min 1 max 1024");
+            output.add("option name Threads type spin default " + ParallelSearch.defaultThreads()
+                + " min 1 max 256");
+            output.add("option name PawnHash type spin default " + PawnHashTable.DEFAULT_MEGABYTES
+                + " min 1 max 256");
+            output.add("uciok");
+        } else if (cmd.equals("isready")) {
+            output.add("readyok");
+        } else if (cmd.equals("ucinewgame")) {
+            newGame();
+        } else if (cmd.startsWith("setoption name Hash value ")) {
+            try {
+                tt.resize(Integer.parseInt(cmd.substring(26).trim()));
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("Bad hash size: " + cmd, e);
+            }
+        } else if (cmd.startsWith("setoption name Threads value ")) {
+            try {
+                setThreads(Integer.parseInt(cmd.substring(29).trim()));
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("Bad thread count: " + cmd, e);
+            }
+        } else if (cmd.startsWith("setoption name PawnHash value ")) {
+            try {
+                setPawnHashSize(Integer.parseInt(cmd.substring(30).trim()));
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("Bad pawn hash size: " + cmd, e);
+            }
+        } else if (cmd.startsWith("position ")) {
+            Uci.loadPosition(cmd.substring(9), position);
+        } else if (cmd.equals("go") || cmd.startsWith("go ")) {
+            int move = search.search(position, goLimits(cmd));
+            output.add(info());
+            Evaluator evaluator = search.getEvaluator();
+            if (evaluator instanceof Evaluation) {
+                PawnHashTable pawns = ((Evaluation) evaluator).getPawnTable();
+                output.add("info string pawn hash hits " + pawns.getHits() + " misses " + pawns.getMisses());
+            }
+            output.add("bestmove " + (move == PackedMove.NONE ? "0000" : PackedMove.toUci(move)));
+        } else if (cmd.equals("stop")) {
+            search.stop();
+        }
+    }
+
+    @Override
+    public String readResponse() {
+        return output.poll();
+    }
+
+    /** Stops a running search and its helper threads; the adapter can't search afterwards. */
+    @Override
+    public void stopEngine() {
+        search.close();
+        searcher.shutdownNow();
+    }
+
+    private String info() {
+        int score = search.getScore();
+        StringBuilder sb = new StringBuilder("info depth ").append(search.getDepth()).append(" score ");
+        if (Math.abs(score) >= Search.MATE_BOUND) {
+            int plies = Search.MATE - Math.abs(score);
+            sb.append("mate ").append(score > 0 ? (plies + 1) / 2 : -(plies / 2));
+        } else {
+            sb.append("cp ").append(score);
+        }
+        sb.append(" nodes ").append(search.getNodes())
+            .append(" hashfull ").append(tt.hashfull()).append(" pv");
+        MoveList pv = search.getPrincipalVariation();
+        for (int i = 0; i < pv.size(); i++) sb.append(' ').append(PackedMove.toUci(pv.get(i)));
+        return sb.toString();
+    }
+
+    /** Limits from {@code go depth/nodes/movetime}; the difficulty's budget otherwise. */
+    private SearchLimits goLimits(String cmd) {
+        String[] tokens = cmd.split(" +");
+        int depth = 0;
+        long nodes = 0, movetime = 0;
+        for (int i = 1; i + 1 < tokens.length; i++) {
+            try {
+                switch (tokens[i]) {
+                    case "depth":    depth = Integer.parseInt(tokens[++i]); break;
+                    case "nodes":    nodes = Long.parseLong(tokens[++i]); break;
+                    case "movetime": movetime = Long.parseLong(tokens[++i]); break;
+                    default: break;
+                }
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("Bad go command: " + cmd, e);
+            }
+        }
+        if (depth == 0 && nodes == 0 && movetime == 0) return limitsFor(difficulty);
+        return new SearchLimits(depth, nodes, movetime);
+    }
+}
@@ -2,36 +2,60 @@ package com.mygdx.chess.engine;
 
 import com.badlogic.gdx.Gdx;
 import java.io.*;
-import java.util.List;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 import com.mygdx.chess.screens.BotLevelScreen.Difficulty;
 
+/**
+ * Stockfish over a {@link UciSession}. Only start-up waits for the engine;
+ * moves are requested with a single {@code position}/{@code go} pair and
+ * arrive through the returned future.
+ * <p>
+ * Search progress is not logged: at thousands of {@code info} lines a
+ * second that was most of the garbage the game made. The latest one is kept
+ * for {@link #copyLastInfo}; other output is logged and can be read back
+ * with {@link #readResponse()}.
+ */
 public class StockfishAdapter implements ChessEngineAdapter {
-    private Process engineProc;
-    private BufferedWriter engineIn;
-    private BufferedReader engineOut;
+    private static final String ENGINE_PATH = "/opt/homebrew/bin/stockfish";
+    private static final long STARTUP_TIMEOUT_MS = 5_000;
+    // non-info output lines kept for readResponse(); older ones are dropped
+    private static final int BACKLOG = 256;
+
+    private UciSession session;
+    private final Deque<String> backlog = new ArrayDeque<>();
+    // latest info line of the current search; guarded by itself
+    private final UciInfo lastInfo = new UciInfo();
+    private boolean hasInfo;
     private Difficulty difficulty;
 
     public StockfishAdapter(Difficulty difficulty) {
         this.difficulty = difficulty;
     }
 
+    /** Launches the engine and waits until it has taken the options. */
     @Override
     public void startEngine() throws IOException {
-        String enginePath = "/opt/homebrew/bin/stockfish";
-        engineProc = new ProcessBuilder(enginePath)
-            .redirectErrorStream(true)
-            .start();
-
-        engineIn = new BufferedWriter(new OutputStreamWriter(engineProc.getOutputStream()));
-        engineOut = new BufferedReader(new InputStreamReader(engineProc.getInputStream()));
+        session = UciSession.start(ENGINE_PATH);
+        session.setListener(this::onOutput);
 
-        sendCommand("uci");
+        CompletableFuture<Void> handshake = session.handshake();
+        sendCommand("setoption name Ponder value true");
         setDifficulty(difficulty);
-        sendCommand("isready");
-
-        String line;
-        while (!(line = readResponse()).equals("readyok")) {
-            Gdx.app.log("StockfishAdapter", "Engine_out ▶ " + line);
+        CompletableFuture<Void> ready = session.isReady();
+        try {
+            CompletableFuture.allOf(handshake, ready).get(STARTUP_TIMEOUT_MS, TimeUnit.MILLISECONDS);
+        } catch (ExecutionException e) {
+            throw new IOException("Engine failed to start", e.getCause());
+        } catch (TimeoutException e) {
+            throw new IOException("Engine did not answer within " + STARTUP_TIMEOUT_MS + " ms");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while starting the engine");
         }
     }
 
@@ -43,51 +67,131 @@ public class StockfishAdapter implements ChessEngineAdapter {
     }
 
     @Override
-    public String getBestMove(String movesHistory) throws IOException {
-        sendCommand("position startpos moves " + movesHistory);
-        sendCommand("isready");
+    public void newGame() throws IOException {
+        sendCommand("ucinewgame");
+    }
+
+    @Override
+    public CompletableFuture<Void> isReady() {
+        if (session == null) {
+            CompletableFuture<Void> failed = new CompletableFuture<>();
+            failed.completeExceptionally(new IOException("Engine not started"));
+            return failed;
+        }
+        return session.isReady();
+    }
+
+    @Override
+    public CompletableFuture<String> getBestMove(String position) {
+        try {
+            sendCommand("position " + position);
+        } catch (IOException e) {
+            CompletableFuture<String> failed = new CompletableFuture<>();
+            failed.completeExceptionally(e);
+            return failed;
+        }
+        Gdx.app.log("StockfishAdapter", "Engine_in  ◀ go " + goArguments(difficulty));
+        clearInfo();
+        return session.go(goArguments(difficulty));
+    }
 
-        String line;
-        while (!(line = readResponse()).equals("readyok")) {
-            Gdx.app.log("StockfishAdapter", "Engine_out ▶ " + line);
+    @Override
+    public String getExpectedReply() {
+        return session == null ? null : session.getPonderMove();
+    }
+
+    @Override
+    public CompletableFuture<String> ponder(String position) {
+        try {
+            sendCommand("position " + position);
+        } catch (IOException e) {
+            CompletableFuture<String> failed = new CompletableFuture<>();
+            failed.completeExceptionally(e);
+            return failed;
         }
+        Gdx.app.log("StockfishAdapter", "Engine_in  ◀ go ponder " + goArguments(difficulty));
+        clearInfo();
+        return session.go("ponder " + goArguments(difficulty));
+    }
 
+    @Override
+    public void ponderHit() throws IOException {
+        session.ponderHit();
+        Gdx.app.log("StockfishAdapter", "Engine_in  ◀ ponderhit");
+    }
+
+    private static String goArguments(Difficulty difficulty) {
         switch (difficulty) {
             case LOW:
-                sendCommand("go nodes 1 movetime 1");
-                break;
+                return "nodes 1 movetime 1";
             case MEDIUM:
-                sendCommand("go depth 3");
-                break;
+                return "depth 3";
             default:
-                sendCommand("go movetime 500");
-                break;
-        }
-
-        while ((line = readResponse()) != null) {
-            if (line.startsWith("bestmove")) {
-                return line.split("\\s+")[1];
-            }
+                return "movetime 500";
         }
-        return null;
     }
 
     @Override
     public void sendCommand(String command) throws IOException {
-        engineIn.write(command + "\n");
-        engineIn.flush();
+        session.send(command);
         Gdx.app.log("StockfishAdapter", "Engine_in  ◀ " + command);
     }
 
+    /**
+     * The oldest output line not yet read, or null if there is none; never
+     * blocks. {@code info} lines are left out, see {@link #copyLastInfo}.
+     */
     @Override
-    public String readResponse() throws IOException {
-        return engineOut.readLine();
+    public String readResponse() {
+        synchronized (backlog) {
+            return backlog.poll();
+        }
+    }
+
+    /**
+     * Copies the latest {@code info} line of the current or last search
+     * into {@code into}, without allocating.
+     *
+     * @return false if that search has reported nothing yet
+     */
+    public boolean copyLastInfo(UciInfo into) {
+        synchronized (lastInfo) {
+            if (hasInfo) into.copyFrom(lastInfo);
+            return hasInfo;
+        }
+    }
+
+    private void clearInfo() {
+        synchronized (lastInfo) {
+            hasInfo = false;
+        }
+    }
+
+    private void onOutput(UciEvent event) {
+        UciInfo info = event.getInfo();
+        // search progress; an info string (rare, e.g. which network was loaded) is logged like other output
+        if (event.getType() == UciEvent.Type.INFO && !info.isString()) {
+            // currmove lines and the like carry no line to show
+            if (info.getPvLength() > 0) {
+                synchronized (lastInfo) {
+                    lastInfo.copyFrom(info);
+                    hasInfo = true;
+                }
+            }
+            return;
+        }
+        String line = event.getLine();
+        Gdx.app.log("StockfishAdapter", "Engine_out ▶ " + line);
+        synchronized (backlog) {
+            if (backlog.size() == BACKLOG) backlog.poll();
+            backlog.add(line);
+        }
     }
 
     @Override
     public void stopEngine() {
-        if (engineProc != null) {
-            engineProc.destroy();
+        if (session != null) {
+            session.close();
         }
     }
 }
@@ -0,0 +1,116 @@
+package com.mygdx.chess.engine;
+
+import com.mygdx.chess.bitboard.Bitboards;
+import com.mygdx.chess.bitboard.Fen;
+import com.mygdx.chess.bitboard.MoveGenerator;
+import com.mygdx.chess.bitboard.MoveList;
+import com.mygdx.chess.bitboard.PackedMove;
+import com.mygdx.chess.bitboard.Position;
+
+/**
+ * Parsing helpers for the text side of the UCI protocol.
+ */
+public final class Uci {
+
+    private Uci() { /* no-op */ }
+
+    /**
+     * @return the move token of a {@code bestmove} line, or null for any
+     *         other line
+     */
+    public static String bestMove(String line) {
+        if (!line.startsWith("bestmove")) return null;
+        int start = 8;
+        while (start < line.length() && line.charAt(start) == ' ') start++;
+        int end = line.indexOf(' ', start);
+        if (end < 0) end = line.length();
+        return start < end ? line.substring(start, end) : null;
+    }
+
+    /**
+     * Decodes a move in coordinate notation ("e2e4", "e7e8q") into a packed
+     * move on {@code pos}. Legality is not checked.
+     *
+     * @throws IllegalArgumentException if the text is not a coordinate move
+     */
+    public static int parseMove(Position pos, String uci) {
+        if (uci.length() < 4 || uci.length() > 5) {
+            throw new IllegalArgumentException("Bad UCI move: " + uci);
+        }
+        int from = square(uci, 0), to = square(uci, 2);
+        if (pos.isEmpty(from)) throw new IllegalArgumentException("No piece to move: " + uci);
+        int promo = 0;
+        if (uci.length() == 5) {
+            promo = "nbrq".indexOf(uci.charAt(4)) + 1;
+            if (promo == 0) throw new IllegalArgumentException("Bad UCI move: " + uci);
+        }
+        return MoveGenerator.moveFor(pos, from, to, promo);
+    }
+
+    /**
+     * Arguments of the {@code position} command for the game that led to
+     * {@code pos}: the FEN of the position after the last capture or pawn
+     * move, followed by the moves played since. Earlier moves cannot
+     * repeat, so the engine still sees every repetition while the command
+     * stays bounded by the fifty-move rule instead of the game length.
+     *
+     * @param history moves played so far, the last of which led to {@code pos}
+     */
+    public static String position(Position pos, MoveList history) {
+        int reversible = Math.min(pos.getHalfmoveClock(), history.size());
+        Position root = pos;
+        if (reversible > 0) {
+            root = new Position(pos);
+            for (int i = history.size() - 1; i >= history.size() - reversible; i--) {
+                root.unmakeMove(history.get(i));
+            }
+        }
+        StringBuilder sb = new StringBuilder(100 + reversible * 5).append("fen ");
+        Fen.save(root, sb);
+        if (reversible > 0) {
+            sb.append(" moves");
+            for (int i = history.size() - reversible; i < history.size(); i++) {
+                sb.append(' ').append(PackedMove.toUci(history.get(i)));
+            }
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Sets {@code pos} from the arguments of a {@code position} command:
+     * {@code startpos} or {@code fen <fen>}, optionally followed by
+     * {@code moves ...}. The moves are played unchecked, so repetitions of
+     * positions along them are known to {@code pos}.
+     *
+     * @throws IllegalArgumentException if the arguments are malformed
+     */
+    public static void loadPosition(String args, Position pos) {
+        int movesAt = args.indexOf(" moves");
+        String head = (movesAt < 0 ? args : args.substring(0, movesAt)).trim();
+        if (head.equals("startpos")) {
+            Fen.load(Fen.START, pos);
+        } else if (head.startsWith("fen ")) {
+            Fen.load(head.substring(4), pos);
+        } else {
+            throw new IllegalArgumentException("Bad position command: " + args);
+        }
+        if (movesAt < 0) return;
+
+        int i = movesAt + 6, n = args.length();
+        while (i < n) {
+            while (i < n && args.charAt(i) == ' ') i++;
+            int end = i;
+            while (end < n && args.charAt(end) != ' ') end++;
+            if (end > i) pos.makeMove(parseMove(pos, args.substring(i, end)));
+            i = end;
+        }
+    }
+
+    private static int square(String uci, int i) {
+        int x = uci.charAt(i) - 'a', y = uci.charAt(i + 1) - '1';
+        if (x < 0 || x > 7 || y < 0 || y > 7) {
+            throw new IllegalArgumentException("Bad UCI move: " + uci);
+        }
+        return Bitboards.square(x, y);
+    }
+}
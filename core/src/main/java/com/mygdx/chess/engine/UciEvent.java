@@ -0,0 +1,78 @@
+package com.mygdx.chess.engine;
+
+import com.mygdx.chess.bitboard.PackedMove;
+
+/**
+ * One line of engine output, classified by its leading keyword. A
+ * {@link UciParser} fills the same event for every line, so nothing here
+ * may be kept past the callback that received it: copy the fields, or
+ * the {@link #getInfo() info}, that are needed later.
+ * <p>
+ * Moves are {@link PackedMove}s with only the squares and the promotion
+ * set; {@link PackedMove#NONE} stands for "no move".
+ */
+public final class UciEvent {
+    public enum Type {
+        ID,
+        OPTION,
+        UCIOK,
+        READYOK,
+        INFO,
+        BESTMOVE,
+        /** Anything else: banners, errors, unknown commands. */
+        OTHER
+    }
+
+    private final UciInfo info = new UciInfo();
+    private Type type = Type.OTHER;
+    private int move, ponder;
+    // the raw line, in the parser's buffer
+    private byte[] bytes = new byte[0];
+    private int start, end;
+
+    public Type getType()    { return type; }
+
+    /** The fields of an {@code info} line; cleared for every other line. */
+    public UciInfo getInfo() { return info; }
+
+    /**
+     * @return the move of a {@code bestmove} line, or {@link PackedMove#NONE}
+     *         for other lines and when the engine had no move
+     *         ({@code (none)} or {@code 0000})
+     */
+    public int getMove()     { return move; }
+
+    /** @return the expected reply of a {@code bestmove ... ponder} line, or {@link PackedMove#NONE} */
+    public int getPonder()   { return ponder; }
+
+    /** Appends the line as the engine wrote it. */
+    public StringBuilder appendLine(StringBuilder sb) {
+        for (int i = start; i < end; i++) sb.append((char) bytes[i]);
+        return sb;
+    }
+
+    /** The line as the engine wrote it; allocates, so not for {@code info} lines in bulk. */
+    public String getLine() {
+        return appendLine(new StringBuilder(end - start)).toString();
+    }
+
+    @Override
+    public String toString() {
+        return type + " " + getLine();
+    }
+
+    // ——————— filled in by UciParser ———————
+
+    void reset(Type type, byte[] bytes, int start, int end) {
+        this.type = type;
+        this.bytes = bytes;
+        this.start = start;
+        this.end = end;
+        move = ponder = PackedMove.NONE;
+        info.clear();
+    }
+
+    void setMove(int move)     { this.move = move; }
+
+    void setPonder(int ponder) { this.ponder = ponder; }
+}
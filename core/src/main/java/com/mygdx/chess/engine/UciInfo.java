@@ -0,0 +1,151 @@
+package com.mygdx.chess.engine;
+
+import com.mygdx.chess.bitboard.PackedMove;
+
+/**
+ * The fields of one {@code info} line. Instances are reused: the parser
+ * overwrites its info for every line, so keep a {@link #copyFrom copy} of
+ * anything needed later. Fields the line did not report read as -1 (or
+ * false); {@code info string} lines report none but {@link #isString()}.
+ * <p>
+ * PV moves are {@link PackedMove}s with only the squares and the promotion
+ * set, as the text does not say which piece moves. {@link PackedMove#toUci}
+ * prints them; {@link com.mygdx.chess.bitboard.MoveGenerator#moveFor}
+ * completes one against a position.
+ */
+public final class UciInfo {
+    /** PV moves kept per line; engines rarely print more. */
+    public static final int MAX_PV = 128;
+
+    private int depth, selDepth, multiPv;
+    private long nodes, nps;
+    private boolean string, hasScore, mate, lowerBound, upperBound;
+    private int score;
+    private final int[] pv = new int[MAX_PV];
+    private int pvLength;
+
+    public UciInfo() {
+        clear();
+    }
+
+    public int getDepth()           { return depth; }
+
+    public int getSelDepth()        { return selDepth; }
+
+    /** Rank of this line among the engine's best lines, from 1; -1 when not in MultiPV mode. */
+    public int getMultiPv()         { return multiPv; }
+
+    public long getNodes()          { return nodes; }
+
+    public long getNps()            { return nps; }
+
+    /** An {@code info string} line: free text for humans, no search data. */
+    public boolean isString()       { return string; }
+
+    public boolean hasScore()       { return hasScore; }
+
+    /** True if {@link #getScore()} is a mate distance rather than centipawns. */
+    public boolean isMate()         { return mate; }
+
+    /**
+     * Centipawns, or moves to mate (negative when getting mated), from the
+     * engine's side to move.
+     */
+    public int getScore()           { return score; }
+
+    /** The score is only a lower bound: the search failed high. */
+    public boolean isLowerBound()   { return lowerBound; }
+
+    /** The score is only an upper bound: the search failed low. */
+    public boolean isUpperBound()   { return upperBound; }
+
+    public int getPvLength()        { return pvLength; }
+
+    public int getPvMove(int index) { return pv[index]; }
+
+    /** Appends the PV in coordinate notation, space separated. */
+    public StringBuilder appendPv(StringBuilder sb) {
+        for (int i = 0; i < pvLength; i++) {
+            if (i > 0) sb.append(' ');
+            appendMove(sb, pv[i]);
+        }
+        return sb;
+    }
+
+    public void copyFrom(UciInfo other) {
+        depth = other.depth;
+        selDepth = other.selDepth;
+        multiPv = other.multiPv;
+        nodes = other.nodes;
+        nps = other.nps;
+        string = other.string;
+        hasScore = other.hasScore;
+        mate = other.mate;
+        lowerBound = other.lowerBound;
+        upperBound = other.upperBound;
+        score = other.score;
+        pvLength = other.pvLength;
+        System.arraycopy(other.pv, 0, pv, 0, pvLength);
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder("depth ").append(depth)
+            .append(" seldepth ").append(selDepth)
+            .append(" multipv ").append(multiPv);
+        if (hasScore) {
+            sb.append(mate ? " score mate " : " score cp ").append(score);
+            if (lowerBound) sb.append(" lowerbound");
+            if (upperBound) sb.append(" upperbound");
+        }
+        sb.append(" nodes ").append(nodes).append(" nps ").append(nps).append(" pv ");
+        return appendPv(sb).toString();
+    }
+
+    /** Same text as {@link PackedMove#toUci}, without the intermediate string. */
+    static void appendMove(StringBuilder sb, int move) {
+        int from = PackedMove.from(move), to = PackedMove.to(move);
+        sb.append((char) ('a' + (from & 7))).append((char) ('1' + (from >>> 3)))
+            .append((char) ('a' + (to & 7))).append((char) ('1' + (to >>> 3)));
+        if (PackedMove.promotion(move) != 0) sb.append("pnbrqk".charAt(PackedMove.promotion(move)));
+    }
+
+    // ——————— filled in by UciParser ———————
+
+    void clear() {
+        depth = selDepth = multiPv = -1;
+        nodes = nps = -1;
+        string = hasScore = mate = lowerBound = upperBound = false;
+        score = 0;
+        pvLength = 0;
+    }
+
+    void setDepth(int depth)        { this.depth = depth; }
+
+    void setSelDepth(int selDepth)  { this.selDepth = selDepth; }
+
+    void setMultiPv(int multiPv)    { this.multiPv = multiPv; }
+
+    void setNodes(long nodes)       { this.nodes = nodes; }
+
+    void setNps(long nps)           { this.nps = nps; }
+
+    void setScore(int score, boolean mate) {
+        this.hasScore = true;
+        this.score = score;
+        this.mate = mate;
+    }
+
+    void setString()                { string = true; }
+
+    void setLowerBound()            { lowerBound = true; }
+
+    void setUpperBound()            { upperBound = true; }
+
+    /** @return false once the PV is full */
+    boolean addPvMove(int move) {
+        if (pvLength == MAX_PV) return false;
+        pv[pvLength++] = move;
+        return true;
+    }
+}
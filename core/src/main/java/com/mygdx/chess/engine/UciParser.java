@@ -0,0 +1,227 @@
+package com.mygdx.chess.engine;
+
+import com.mygdx.chess.bitboard.PackedMove;
+import com.mygdx.chess.bitboard.Position;
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Splits an engine's output stream into lines and parses each one into the
+ * same {@link UciEvent}, straight from the bytes. Deep analysis prints
+ * thousands of {@code info} lines a second; reading them as Strings and
+ * splitting with a regex made garbage of every one. Here a line costs no
+ * allocation at all, unless it is longer than the buffer.
+ * <p>
+ * UCI output is ASCII; other bytes are kept but never match a keyword.
+ * Not thread-safe: one reader thread owns a parser.
+ */
+public final class UciParser {
+    private static final int BUFFER_SIZE = 8192;
+
+    private static final byte[] ID = ascii("id"), OPTION = ascii("option"), UCIOK = ascii("uciok"),
+        READYOK = ascii("readyok"), INFO = ascii("info"), BESTMOVE = ascii("bestmove"), PONDER = ascii("ponder");
+
+    private static final byte[] DEPTH = ascii("depth"), SELDEPTH = ascii("seldepth"), MULTIPV = ascii("multipv"),
+        SCORE = ascii("score"), CP = ascii("cp"), MATE = ascii("mate"), LOWERBOUND = ascii("lowerbound"),
+        UPPERBOUND = ascii("upperbound"), NODES = ascii("nodes"), NPS = ascii("nps"), PV = ascii("pv"),
+        STRING = ascii("string");
+
+    private final InputStream in;
+    private final UciEvent event = new UciEvent();
+    private byte[] buffer = new byte[BUFFER_SIZE];
+    // unread bytes are buffer[pos, limit)
+    private int pos, limit;
+    // the token under the cursor is buffer[tokenStart, tokenEnd); lineEnd bounds the current line
+    private int tokenStart, tokenEnd, lineEnd;
+
+    public UciParser(InputStream in) {
+        this.in = in;
+    }
+
+    /**
+     * Reads and parses the next line, blocking until one is complete.
+     *
+     * @return the reused event, valid until the next call; or null at end
+     *         of stream, with any unterminated last line still parsed first
+     */
+    public UciEvent next() throws IOException {
+        // bytes after pos already searched for the newline; fill() may move pos
+        int scanned = 0;
+        while (true) {
+            for (int i = pos + scanned; i < limit; i++) {
+                if (buffer[i] == '\n') {
+                    parseLine(pos, i);
+                    pos = i + 1;
+                    return event;
+                }
+            }
+            scanned = limit - pos;
+            if (!fill()) {
+                if (pos == limit) return null;
+                parseLine(pos, limit);
+                pos = limit;
+                return event;
+            }
+        }
+    }
+
+    /** Parses one line that is already in memory, e.g. for benchmarks. */
+    public UciEvent parse(byte[] line, int start, int end) {
+        byte[] saved = buffer;
+        buffer = line;
+        parseLine(start, end);
+        buffer = saved;
+        return event;
+    }
+
+    /**
+     * Reads more bytes behind the unread ones, moving them to the front of
+     * the buffer first, or growing it if a single line fills it.
+     *
+     * @return false at end of stream
+     */
+    private boolean fill() throws IOException {
+        if (pos > 0) {
+            System.arraycopy(buffer, pos, buffer, 0, limit - pos);
+            limit -= pos;
+            pos = 0;
+        } else if (limit == buffer.length) {
+            byte[] grown = new byte[buffer.length * 2];
+            System.arraycopy(buffer, 0, grown, 0, limit);
+            buffer = grown;
+        }
+        int n = in.read(buffer, limit, buffer.length - limit);
+        if (n <= 0) return false;
+        limit += n;
+        return true;
+    }
+
+    private void parseLine(int start, int end) {
+        if (end > start && buffer[end - 1] == '\r') end--;
+        lineEnd = end;
+        tokenEnd = start;
+        UciEvent.Type type = nextToken() ? typeOf() : UciEvent.Type.OTHER;
+        event.reset(type, buffer, start, end);
+        if (type == UciEvent.Type.INFO) parseInfo(event.getInfo());
+        else if (type == UciEvent.Type.BESTMOVE) parseBestMove();
+    }
+
+    private UciEvent.Type typeOf() {
+        if (is(INFO))     return UciEvent.Type.INFO;
+        if (is(BESTMOVE)) return UciEvent.Type.BESTMOVE;
+        if (is(ID))       return UciEvent.Type.ID;
+        if (is(OPTION))   return UciEvent.Type.OPTION;
+        if (is(UCIOK))    return UciEvent.Type.UCIOK;
+        if (is(READYOK))  return UciEvent.Type.READYOK;
+        return UciEvent.Type.OTHER;
+    }
+
+    private void parseBestMove() {
+        if (!nextToken()) return;
+        event.setMove(move());
+        if (nextToken() && is(PONDER) && nextToken()) event.setPonder(move());
+    }
+
+    /** Reads the fields this repo uses; anything else, and its value, is skipped. */
+    private void parseInfo(UciInfo info) {
+        while (nextToken()) {
+            if (is(DEPTH)) {
+                if (nextToken()) info.setDepth((int) number());
+            } else if (is(SELDEPTH)) {
+                if (nextToken()) info.setSelDepth((int) number());
+            } else if (is(MULTIPV)) {
+                if (nextToken()) info.setMultiPv((int) number());
+            } else if (is(NODES)) {
+                if (nextToken()) info.setNodes(number());
+            } else if (is(NPS)) {
+                if (nextToken()) info.setNps(number());
+            } else if (is(SCORE)) {
+                if (!nextToken()) return;
+                boolean mate = is(MATE);
+                if ((mate || is(CP)) && nextToken()) info.setScore((int) number(), mate);
+            } else if (is(LOWERBOUND)) {
+                info.setLowerBound();
+            } else if (is(UPPERBOUND)) {
+                info.setUpperBound();
+            } else if (is(PV)) {
+                // the PV runs to the end of the line, or to the first token that is no move
+                while (nextToken()) {
+                    int move = move();
+                    if (move == PackedMove.NONE || !info.addPvMove(move)) break;
+                }
+            } else if (is(STRING)) {
+                info.setString();
+                return; // free text
+            }
+            // other keys (time, hashfull, tbhits, currmove, wdl ...) fall through
+            // here, and so do their values on the next round
+        }
+    }
+
+    /** Advances to the next space-delimited token of the line. @return false at the end of it */
+    private boolean nextToken() {
+        int i = tokenEnd;
+        while (i < lineEnd && isSpace(buffer[i])) i++;
+        if (i == lineEnd) return false;
+        tokenStart = i;
+        while (i < lineEnd && !isSpace(buffer[i])) i++;
+        tokenEnd = i;
+        return true;
+    }
+
+    private boolean is(byte[] keyword) {
+        if (tokenEnd - tokenStart != keyword.length) return false;
+        for (int i = 0; i < keyword.length; i++) {
+            if (buffer[tokenStart + i] != keyword[i]) return false;
+        }
+        return true;
+    }
+
+    /** The token as a decimal number, possibly negative; 0 if it is none. */
+    private long number() {
+        int i = tokenStart;
+        boolean negative = buffer[i] == '-';
+        if (negative || buffer[i] == '+') i++;
+        long value = 0;
+        for (; i < tokenEnd; i++) {
+            int digit = buffer[i] - '0';
+            if (digit < 0 || digit > 9) return 0;
+            value = value * 10 + digit;
+        }
+        return negative ? -value : value;
+    }
+
+    /** The token as a coordinate move, or {@link PackedMove#NONE} if it is none ({@code 0000}, {@code (none)}). */
+    private int move() {
+        int length = tokenEnd - tokenStart;
+        if (length != 4 && length != 5) return PackedMove.NONE;
+        int from = square(tokenStart), to = square(tokenStart + 2);
+        if (from < 0 || to < 0) return PackedMove.NONE;
+        int promotion = 0;
+        if (length == 5) {
+            switch (buffer[tokenStart + 4]) {
+                case 'n': promotion = Position.KNIGHT; break;
+                case 'b': promotion = Position.BISHOP; break;
+                case 'r': promotion = Position.ROOK; break;
+                case 'q': promotion = Position.QUEEN; break;
+                default:  return PackedMove.NONE;
+            }
+        }
+        return from | (to << 6) | (promotion << 12);
+    }
+
+    private int square(int at) {
+        int file = buffer[at] - 'a', rank = buffer[at + 1] - '1';
+        return file >= 0 && file < 8 && rank >= 0 && rank < 8 ? rank * 8 + file : -1;
+    }
+
+    private static boolean isSpace(byte b) {
+        return b == ' ' || b == '\t';
+    }
+
+    private static byte[] ascii(String keyword) {
+        byte[] bytes = new byte[keyword.length()];
+        for (int i = 0; i < bytes.length; i++) bytes[i] = (byte) keyword.charAt(i);
+        return bytes;
+    }
+}
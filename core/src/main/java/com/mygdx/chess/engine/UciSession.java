@@ -0,0 +1,211 @@
+package com.mygdx.chess.engine;
+
+import com.mygdx.chess.bitboard.PackedMove;
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
+
+/**
+ * UCI connection to an engine process. One long-lived reader thread turns
+ * the engine's output into {@link UciEvent}s, with a {@link UciParser} that
+ * allocates nothing per line, and completes the futures of
+ * the requests waiting for them; nothing ever blocks on a read. The engine
+ * answers {@code uci}, {@code isready} and {@code go} in the order they were
+ * sent, so each answer completes the oldest request of its kind.
+ * <p>
+ * Futures complete on the reader thread: dependent actions must be quick
+ * and must not wait for further engine output. A search whose future is
+ * cancelled or times out (see {@link Futures#orTimeout}) is stopped, and
+ * its late {@code bestmove} is dropped. When the engine exits, every
+ * pending request fails with an {@link IOException}.
+ */
+public final class UciSession implements Closeable {
+    private final Process process;
+    private final Writer in;
+    private final Thread reader;
+
+    // requests in the order sent; guarded by this
+    private final Deque<CompletableFuture<Void>> handshakes = new ArrayDeque<>();
+    private final Deque<CompletableFuture<Void>> readyChecks = new ArrayDeque<>();
+    private final Deque<CompletableFuture<String>> searches = new ArrayDeque<>();
+    private boolean closed;
+
+    private volatile Consumer<UciEvent> listener = event -> { };
+    private volatile String ponderMove;
+
+    private UciSession(Process process) {
+        this.process = process;
+        this.in = new BufferedWriter(new OutputStreamWriter(process.getOutputStream(), StandardCharsets.US_ASCII));
+        UciParser out = new UciParser(process.getInputStream());
+        this.reader = new Thread(() -> readLoop(out), "uci-reader");
+        reader.setDaemon(true);
+    }
+
+    /** Launches the engine with {@code command} and starts reading its output. */
+    public static UciSession start(String... command) throws IOException {
+        Process process = new ProcessBuilder(command)
+            .redirectErrorStream(true)
+            .start();
+        UciSession session = new UciSession(process);
+        session.reader.start();
+        return session;
+    }
+
+    /**
+     * Receives every line of output, after any request it answers has been
+     * completed. Called on the reader thread; must not throw. The event is
+     * reused for the next line, so copy whatever is kept.
+     */
+    public void setListener(Consumer<UciEvent> listener) {
+        this.listener = listener;
+    }
+
+    /** Writes one command line. */
+    public synchronized void send(String command) throws IOException {
+        if (closed) throw new IOException("UCI session is closed");
+        in.write(command);
+        in.write('\n');
+        in.flush();
+    }
+
+    /** Sends {@code uci}; completes on {@code uciok}. */
+    public synchronized CompletableFuture<Void> handshake() {
+        return request(handshakes, "uci");
+    }
+
+    /** Sends {@code isready}; completes on {@code readyok}, once every earlier command is processed. */
+    public synchronized CompletableFuture<Void> isReady() {
+        return request(readyChecks, "isready");
+    }
+
+    /**
+     * Sends {@code go} with {@code arguments}, e.g. {@code "movetime 500"}.
+     * Cancelling the future, or timing it out, sends {@code stop}.
+     *
+     * @return completes with the best move in coordinate notation, or null
+     *         if the engine had none
+     */
+    public synchronized CompletableFuture<String> go(String arguments) {
+        CompletableFuture<String> result = request(searches, arguments.isEmpty() ? "go" : "go " + arguments);
+        result.whenComplete((move, error) -> {
+            // only a search that was given up on completes exceptionally
+            if (error != null) stopQuietly();
+        });
+        return result;
+    }
+
+    /**
+     * Tells a {@code go ponder} search that the expected move was played;
+     * it goes on as a normal search and its future completes with the reply.
+     */
+    public void ponderHit() throws IOException {
+        send("ponderhit");
+    }
+
+    /** The expected reply from the last {@code bestmove ... ponder} line, or null if it had none. */
+    public String getPonderMove() {
+        return ponderMove;
+    }
+
+    /** Asks the running search to finish; its future completes with the move found so far. */
+    public void stop() throws IOException {
+        send("stop");
+    }
+
+    public boolean isAlive() {
+        return process.isAlive();
+    }
+
+    /**
+     * Stops any search and ends the process without waiting for it.
+     * Pending requests fail.
+     */
+    @Override
+    public void close() {
+        stopQuietly();
+        try {
+            send("quit");
+        } catch (IOException e) {
+            // already gone
+        }
+        synchronized (this) {
+            closed = true;
+            failPending(new IOException("UCI session closed"));
+        }
+        process.destroy();
+    }
+
+    private <T> CompletableFuture<T> request(Deque<CompletableFuture<T>> pending, String command) {
+        CompletableFuture<T> result = new CompletableFuture<>();
+        try {
+            send(command);
+            pending.add(result);
+        } catch (IOException e) {
+            result.completeExceptionally(e);
+        }
+        return result;
+    }
+
+    private void stopQuietly() {
+        try {
+            stop();
+        } catch (IOException e) {
+            // the engine is gone, so nothing is searching
+        }
+    }
+
+    private void readLoop(UciParser out) {
+        try {
+            for (UciEvent event; (event = out.next()) != null; ) {
+                dispatch(event);
+            }
+        } catch (IOException e) {
+            // the stream closed under us; same as end of output
+        } finally {
+            synchronized (this) {
+                failPending(new IOException("Engine exited"));
+            }
+        }
+    }
+
+    private void dispatch(UciEvent event) {
+        CompletableFuture<Void> answered = null;
+        CompletableFuture<String> search = null;
+        synchronized (this) {
+            switch (event.getType()) {
+                case UCIOK:    answered = handshakes.poll(); break;
+                case READYOK:  answered = readyChecks.poll(); break;
+                case BESTMOVE: search = searches.poll(); break;
+                default: break;
+            }
+        }
+        // completed outside the lock: dependents may send commands
+        if (answered != null) answered.complete(null);
+        if (search != null) {
+            // a search that was given up on predicts nothing
+            if (!search.isDone()) ponderMove = toUci(event.getPonder());
+            search.complete(toUci(event.getMove()));
+        }
+        listener.accept(event);
+    }
+
+    private static String toUci(int move) {
+        return move == PackedMove.NONE ? null : PackedMove.toUci(move);
+    }
+
+    private void failPending(IOException cause) {
+        for (CompletableFuture<Void> f : handshakes) f.completeExceptionally(cause);
+        for (CompletableFuture<Void> f : readyChecks) f.completeExceptionally(cause);
+        for (CompletableFuture<String> f : searches) f.completeExceptionally(cause);
+        handshakes.clear();
+        readyChecks.clear();
+        searches.clear();
+    }
+}
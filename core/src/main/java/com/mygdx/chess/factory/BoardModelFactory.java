@@ -1,13 +1,20 @@
 package com.mygdx.chess.factory;
 
+import com.mygdx.chess.bitboard.Bitboards;
+import com.mygdx.chess.bitboard.Fen;
+import com.mygdx.chess.bitboard.MoveList;
+import com.mygdx.chess.bitboard.Position;
 import com.mygdx.chess.model.BoardModel;
 import com.mygdx.chess.model.IBoardModel;
+import com.mygdx.chess.model.PieceColor;
+import com.mygdx.chess.model.PieceType;
 import com.mygdx.chess.actors.ChessPiece;
 
 import java.util.List;
 
 /**
- * Factory to initialize a BoardModel with the standard chess starting setup.
+ * Factory to initialize a BoardModel with the standard chess starting
+ * setup or any position given as FEN.
  */
 public class BoardModelFactory {
 
@@ -16,23 +23,49 @@ public class BoardModelFactory {
      * @param flipY if true, black is at the bottom
      */
     public static IBoardModel createStandardBoard(boolean flipY) {
+        return createFromFen(Fen.START, flipY);
+    }
+
+    /**
+     * Creates a BoardModel holding the position described by {@code fen},
+     * including castling rights, en passant and move counters. Pieces that
+     * can no longer castle or double-step are marked as moved.
+     * @param flipY if true, black is at the bottom
+     * @throws IllegalArgumentException if {@code fen} is not valid FEN
+     */
+    public static IBoardModel createFromFen(String fen, boolean flipY) {
+        Position pos = Fen.load(fen);
         IBoardModel model = new BoardModel(flipY);
         List<ChessPiece> pieces = model.getPieces();
         pieces.clear();
-        // White pawns
-        for (int x = 0; x < 8; x++) {
-            pieces.add(ChessPieceFactory.create("white", "pawn", x, 1));
-        }
-        // Black pawns
-        for (int x = 0; x < 8; x++) {
-            pieces.add(ChessPieceFactory.create("black", "pawn", x, 6));
-        }
-        // Back ranks
-        String[] order = {"rook","knight","bishop","queen","king","bishop","knight","rook"};
-        for (int x = 0; x < 8; x++) {
-            pieces.add(ChessPieceFactory.create("white", order[x], x, 0));
-            pieces.add(ChessPieceFactory.create("black", order[x], x, 7));
+        for (int sq = 0; sq < 64; sq++) {
+            int p = pos.pieceAt(sq);
+            if (p == Position.EMPTY) continue;
+            int x = Bitboards.file(sq), y = Bitboards.rank(sq);
+            ChessPiece piece = ChessPieceFactory.create(
+                PieceColor.of(Position.colorOf(p)), PieceType.of(Position.typeOf(p)), x, y);
+            piece.setHasMoved(hasMoved(pos, p, x, y));
+            pieces.add(piece);
         }
+        model.getGameLogic().restore(pos, new MoveList());
         return model;
     }
+
+    private static boolean hasMoved(Position pos, int piece, int x, int y) {
+        int color = Position.colorOf(piece);
+        int rights = pos.getCastlingRights() >> (2 * color);
+        int homeRank = color == Position.WHITE ? 0 : 7;
+        switch (Position.typeOf(piece)) {
+            case Position.PAWN:
+                return y != (color == Position.WHITE ? 1 : 6);
+            case Position.KING:
+                return y != homeRank || x != 4 || (rights & 3) == 0;
+            case Position.ROOK:
+                if (y == homeRank && x == 7) return (rights & Position.WHITE_KINGSIDE) == 0;
+                if (y == homeRank && x == 0) return (rights & Position.WHITE_QUEENSIDE) == 0;
+                return true;
+            default:
+                return false;
+        }
+    }
 }
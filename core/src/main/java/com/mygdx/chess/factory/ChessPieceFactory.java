@@ -1,6 +1,8 @@
 package com.mygdx.chess.factory;
 
 import com.mygdx.chess.actors.ChessPiece;
+import com.mygdx.chess.model.PieceColor;
+import com.mygdx.chess.model.PieceType;
 
 /**
  * Factory for creating ChessPiece instances by type and color.
@@ -9,12 +11,12 @@ public class ChessPieceFactory {
 
     /**
      * Creates a ChessPiece of the given color and type at (x, y).
-     * @param color "white" or "black"
-     * @param type  "pawn", "knight", "bishop", "rook", "queen", or "king"
+     * @param color side the piece belongs to
+     * @param type  kind of piece
      * @param x     board file (0–7)
      * @param y     board rank (0–7)
      */
-    public static ChessPiece create(String color, String type, int x, int y) {
+    public static ChessPiece create(PieceColor color, PieceType type, int x, int y) {
         return new ChessPiece(color, type, x, y);
     }
 }
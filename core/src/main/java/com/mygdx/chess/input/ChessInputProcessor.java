@@ -7,8 +7,10 @@ import com.badlogic.gdx.graphics.OrthographicCamera;
 import com.badlogic.gdx.math.Vector3;
 import com.mygdx.chess.ChessGame;
 import com.mygdx.chess.actors.ChessPiece;
+import com.mygdx.chess.bitboard.PackedMove;
 import com.mygdx.chess.decorator.HighlightDecorator;
 import com.mygdx.chess.logic.GameLogic;
+import com.mygdx.chess.logic.PositionAnalysis;
 import com.mygdx.chess.memento.GameMemento;
 import com.mygdx.chess.model.IBoardModel;
 import com.mygdx.chess.screens.BotGameScreen;
@@ -18,7 +20,6 @@ import com.mygdx.chess.screens.GameOverScreen;
 import com.mygdx.chess.sound.SoundManager;
 import com.mygdx.chess.view.IChessRenderer;
 
-import java.util.Iterator;
 import java.util.List;
 import java.util.Stack;
 
@@ -55,8 +56,6 @@ public class ChessInputProcessor implements InputProcessor, IGameInputProcessor
     public boolean touchDown(int screenX, int screenY, int pointer, int button) {
         GameLogic logic  = boardModel.getGameLogic();
         List<ChessPiece> pieces = boardModel.getPieces();
-        // Save state for undo
-        mementoStack.push(boardModel.createMemento());
 
         // 1) If it's a BotGameScreen, ignore taps when it's the engine’s turn
         if (game.getScreen() instanceof BotGameScreen) {
@@ -80,9 +79,7 @@ public class ChessInputProcessor implements InputProcessor, IGameInputProcessor
             for (ChessPiece p : pieces) {
                 if (p.getXPos() == boardX && p.getYPos() == boardY) {
                     selected = p;
-                    boardModel.setPossibleMoves(
-                        logic.getPossibleMoves(p, pieces)
-                    );
+                    logic.getPossibleMoves(p, boardModel.getPossibleMoves());
                     return true;
                 }
             }
@@ -90,131 +87,51 @@ public class ChessInputProcessor implements InputProcessor, IGameInputProcessor
         }
 
         // 4) We have a selected piece → try to move it
-        int startX = selected.getXPos();
-        int startY = selected.getYPos();
-        boolean isEnPassant = selected.getType().equalsIgnoreCase("pawn")
-            && Math.abs(boardX - startX) == 1
-            && boardY == logic.getEnPassantTargetY()
-            && boardX == logic.getEnPassantTargetX();
-
-        if (logic.isValidMove(selected, boardX, boardY, pieces)) {
-            // — CASTLING —
-            if (selected.getType().equalsIgnoreCase("king")
-                && Math.abs(boardX - startX) == 2) {
-                int rookStartX = (boardX > startX) ? 7 : 0;
-                int rookDestX  = (boardX > startX)
-                    ? boardX - 1
-                    : boardX + 1;
-                for (ChessPiece p : pieces) {
-                    if (p.getType().equalsIgnoreCase("rook")
-                        && p.getXPos() == rookStartX
-                        && p.getYPos() == startY
-                        && p.getColor().equals(selected.getColor()))
-                    {
-                        p.setPosition(rookDestX, startY);
-                        break;
-                    }
-                }
-            }
+        int move = logic.findMove(selected, boardX, boardY, pieces);
+        selected = null;
+        boardModel.clearPossibleMoves();
+        if (move == PackedMove.NONE) {
+            // INVALID MOVE — DESELECT
+            return true;
+        }
 
-            // — CAPTURE or EN PASSANT —
-            boolean wasCapture;
-            if (isEnPassant) {
-                int capY = selected.getColor().equalsIgnoreCase("white")
-                    ? boardY - 1 : boardY + 1;
-                wasCapture = pieces.removeIf(
-                    p -> p.getXPos() == boardX && p.getYPos() == capY
-                );
-            } else {
-                wasCapture = pieces.removeIf(p ->
-                    p != selected
-                        && p.getXPos() == boardX
-                        && p.getYPos() == boardY
-                );
-            }
-            if (wasCapture) SoundManager.playCapture();
-
-            // — CLEAR HIGHLIGHTS —
-            for (ChessPiece p : pieces) p.clearDecorators();
-
-            // — MOVE THE PIECE —
-            selected.setPosition(boardX, boardY);
-            if (!wasCapture) SoundManager.playMove();
-
-            // — HIGHLIGHT MOVED PIECE —
-            selected.addDecorator(new HighlightDecorator());
-
-            // — SET/CLEAR EN PASSANT TARGET —
-            if (selected.getType().equalsIgnoreCase("pawn")
-                && Math.abs(boardY - startY) == 2)
-            {
-                int targetY = selected.getColor().equalsIgnoreCase("white")
-                    ? startY + 1
-                    : startY - 1;
-                logic.setEnPassantTarget(startX, targetY, selected);
-            } else {
-                logic.clearEnPassantTarget();
-            }
+        // Save state for undo
+        mementoStack.push(boardModel.createMemento());
 
-            // — PROMOTION —
-            if (selected.getType().equalsIgnoreCase("pawn")
-                && ((selected.getColor().equalsIgnoreCase("white") && boardY == 7)
-                || (selected.getColor().equalsIgnoreCase("black") && boardY == 0)))
-            {
-                SoundManager.playPromote();
-                ChessPiece pawn = selected;
-                int fx = startX, fy = startY;
-                int tx = boardX,  ty = boardY;
-
-                selected = null;
-                boardModel.setPossibleMoves(null);
-
-                if (game.getScreen() instanceof BotGameScreen) {
-                    // Bot-vs-Human
-                    BotGameScreen bgs = (BotGameScreen)game.getScreen();
-                    game.setScreen(new PromotionScreen(
-                        bgs, pawn, fx, fy, tx, ty
-                    ));
-                    return true;
-                } else {
-                    // Human-vs-Human
-                    game.setScreen(new PromotionScreen(
-                        game, boardModel, renderer, pawn,
-                        fx, fy, tx, ty
-                    ));
-                    return true;
-                }
-            }
+        // — CLEAR HIGHLIGHTS —
+        for (ChessPiece p : pieces) p.clearDecorators();
 
-            // — RECORD FOR BOT (if any) —
+        // — PROMOTION — the piece is chosen first, then the move is played
+        if (PackedMove.isPromotion(move)) {
+            SoundManager.playPromote();
             if (game.getScreen() instanceof BotGameScreen) {
-                ((BotGameScreen)game.getScreen())
-                    .recordHumanMove(startX, startY, boardX, boardY);
-            }
-
-            // — SWITCH TURNS & CHECK ENDGAME —
-            logic.toggleTurn();
-            String next = logic.isWhiteTurn() ? "white" : "black";
-            if (logic.isCheckmate(next, pieces)) {
-                String winner = next.equals("white") ? "Black" : "White";
-                game.setScreen(new GameOverScreen(
-                    game, "Checkmate! " + winner + " wins.", winner, false, false
-                ));
-            } else if (logic.isStalemate(next, pieces)) {
-                game.setScreen(new GameOverScreen(
-                    game, "Stalemate! The game is a draw.", "Stalemate!", false, false
-                ));
+                // Bot-vs-Human
+                ((BotGameScreen) game.getScreen()).choosePromotion(move);
+            } else {
+                // Human-vs-Human
+                game.setScreen(new PromotionScreen(game, boardModel, renderer, move));
             }
-
-            // — CLEAN UP —
-            selected = null;
-            boardModel.setPossibleMoves(null);
             return true;
         }
 
-        // INVALID MOVE — DESELECT
-        selected = null;
-        boardModel.setPossibleMoves(null);
+        // — MOVE THE PIECE — (captures, en passant and castling included)
+        ChessPiece moved = logic.playMove(move, pieces);
+        if (PackedMove.isCapture(move)) {
+            SoundManager.playCapture();
+        } else {
+            SoundManager.playMove();
+        }
+
+        // — HIGHLIGHT MOVED PIECE —
+        moved.addDecorator(new HighlightDecorator());
+
+        // — CHECK ENDGAME —
+        PositionAnalysis analysis = logic.getAnalysis();
+        if (analysis.isGameOver()) {
+            game.setScreen(new GameOverScreen(
+                game, analysis.getStatus(), logic.getSideToMove().opposite(), false, false
+            ));
+        }
         return true;
     }
 
@@ -234,7 +151,7 @@ public class ChessInputProcessor implements InputProcessor, IGameInputProcessor
             for (ChessPiece p : boardModel.getPieces()) {
                 p.clearDecorators();
             }
-            boardModel.setPossibleMoves(null);
+            boardModel.clearPossibleMoves();
             return true;
         }
         if (Gdx.input.isKeyPressed(Input.Keys.M)) {
@@ -1,6 +1,8 @@
 package com.mygdx.chess.logic;
 
 import com.mygdx.chess.actors.ChessPiece;
+import com.mygdx.chess.bitboard.Bitboards;
+import com.mygdx.chess.bitboard.Position;
 import java.util.List;
 
 /**
@@ -12,26 +14,12 @@ public class BishopMoveValidator implements IMoveValidator {
         ChessPiece piece,
         int destX, int destY,
         List<ChessPiece> allPieces,
-        ChessPiece[][] boardState,
+        Position position,
         GameLogic logic
     ) {
-        int startX = piece.getXPos();
-        int startY = piece.getYPos();
-        if (Math.abs(destX - startX) != Math.abs(destY - startY)) {
-            return false;
-        }
-        int dx = Integer.compare(destX, startX);
-        int dy = Integer.compare(destY, startY);
-        int x = startX + dx;
-        int y = startY + dy;
-        while (x != destX || y != destY) {
-            if (boardState[x][y] != null) {
-                return false;
-            }
-            x += dx;
-            y += dy;
-        }
-        return true;
+        int from = Bitboards.square(piece.getXPos(), piece.getYPos());
+        int to   = Bitboards.square(destX, destY);
+        return Math.abs(destX - piece.getXPos()) == Math.abs(destY - piece.getYPos())
+            && (Bitboards.between(from, to) & position.occupied()) == 0;
     }
 }
-
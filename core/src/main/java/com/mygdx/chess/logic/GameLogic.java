@@ -1,65 +1,195 @@
 package com.mygdx.chess.logic;
 
 import com.mygdx.chess.actors.ChessPiece;
+import com.mygdx.chess.factory.ChessPieceFactory;
+import com.mygdx.chess.bitboard.Bitboards;
+import com.mygdx.chess.bitboard.MoveGenerator;
+import com.mygdx.chess.bitboard.MoveList;
+import com.mygdx.chess.bitboard.PackedMove;
+import com.mygdx.chess.bitboard.Position;
+import com.mygdx.chess.model.PieceColor;
+import com.mygdx.chess.model.PieceType;
 
 import java.util.*;
 
+/**
+ * Rules and state of one game. Each board model owns its own instance,
+ * so independent games can run side by side; an instance itself is not
+ * thread-safe. The validators are stateless and shared by all games.
+ */
 public class GameLogic {
 
-    private static GameLogic instance;
-    private final Map<String, IMoveValidator> validatorMap = new HashMap<>();
-    private ChessPiece[][] board;
-    private boolean whiteTurn;
+    private static final Map<PieceType, IMoveValidator> VALIDATORS;
 
-    // En passant state
-    private int enPassantTargetX = -1;
-    private int enPassantTargetY = -1;
-    private ChessPiece enPassantVulnerablePawn = null;
+    static {
+        Map<PieceType, IMoveValidator> validators = new EnumMap<>(PieceType.class);
+        validators.put(PieceType.PAWN, new PawnMoveValidator());
+        validators.put(PieceType.ROOK, new RookMoveValidator());
+        validators.put(PieceType.KNIGHT, new KnightMoveValidator());
+        validators.put(PieceType.BISHOP, new BishopMoveValidator());
+        validators.put(PieceType.QUEEN, new QueenMoveValidator());
+        validators.put(PieceType.KING, new KingMoveValidator());
+        VALIDATORS = Collections.unmodifiableMap(validators);
+    }
 
-    // Singleton Design Pattern
-    public static synchronized GameLogic getInstance() {
-        if (instance == null) {
-            instance = new GameLogic();
-        }
-        return instance;
+    private final Position position = new Position();
+    private final MoveList legalMoves = new MoveList();
+    private final MoveList history = new MoveList();
+    private final PositionAnalysis analysis = new PositionAnalysis();
+    private boolean analysisStale = true;
+
+    /** File of the square a pawn may capture en passant onto, or -1. */
+    public int getEnPassantTargetX() {
+        int ep = position.getEpSquare();
+        return ep == Position.NO_SQUARE ? -1 : Bitboards.file(ep);
+    }
+
+    /** Rank of the square a pawn may capture en passant onto, or -1. */
+    public int getEnPassantTargetY() {
+        int ep = position.getEpSquare();
+        return ep == Position.NO_SQUARE ? -1 : Bitboards.rank(ep);
     }
 
-    public GameLogic() {
-        board = new ChessPiece[8][8];
-        whiteTurn = true;
+    /**
+     * Rebuilds the bitboard position in place from the piece list, keeping
+     * side to move and en passant. Castling rights are derived from unmoved
+     * kings and corner rooks. Only needed when pieces were placed by hand;
+     * moves go through {@link #playMove}. The move history is cleared, as
+     * it no longer leads to the new position.
+     */
+    public void updateBoardState(List<ChessPiece> pieces) {
+        int side = position.getSideToMove();
+        int ep = position.getEpSquare();
+        position.clear();
+        int kingsHome = 0, rooksHome = 0;
+        for (ChessPiece p : pieces) {
+            int color = p.getColor().index();
+            int type  = p.getType().index();
+            int x = p.getXPos(), y = p.getYPos();
+            position.put(color, type, Bitboards.square(x, y));
+
+            int homeRank = color == Position.WHITE ? 0 : 7;
+            if (p.hasMoved() || y != homeRank) continue;
+            if (type == Position.KING && x == 4) {
+                kingsHome |= Position.WHITE_KINGSIDE << (2 * color);
+                kingsHome |= Position.WHITE_QUEENSIDE << (2 * color);
+            } else if (type == Position.ROOK && x == 7) {
+                rooksHome |= Position.WHITE_KINGSIDE << (2 * color);
+            } else if (type == Position.ROOK && x == 0) {
+                rooksHome |= Position.WHITE_QUEENSIDE << (2 * color);
+            }
+        }
+        position.setCastlingRights(kingsHome & rooksHome);
+        position.setSideToMove(side);
+        position.setEpSquare(ep);
+        history.clear();
+        analysisStale = true;
+    }
 
-        validatorMap.put("pawn", new PawnMoveValidator());
-        validatorMap.put("rook", new RookMoveValidator());
-        validatorMap.put("knight", new KnightMoveValidator());
-        validatorMap.put("bishop", new BishopMoveValidator());
-        validatorMap.put("queen", new QueenMoveValidator());
-        validatorMap.put("king", new KingMoveValidator());
+    /**
+     * Legal moves, check and game-over status of the current position.
+     * Computed on first use after a move and shared by every caller until
+     * the position changes again; callers must not keep it across moves.
+     */
+    public PositionAnalysis getAnalysis() {
+        if (analysisStale) {
+            analysis.compute(position);
+            analysisStale = false;
+        }
+        return analysis;
     }
 
-    public void setEnPassantTarget(int x, int y, ChessPiece pawn) {
-        enPassantTargetX = x;
-        enPassantTargetY = y;
-        enPassantVulnerablePawn = pawn;
+    /**
+     * Looks up a move of {@code piece} among the legal moves of the
+     * current position. A pawn reaching the last rank is given a queen;
+     * swap it with {@link PackedMove#withPromotion}.
+     *
+     * @return the packed move, or {@link PackedMove#NONE} if it is not legal
+     */
+    public int findMove(ChessPiece piece, int toX, int toY, List<ChessPiece> pieces) {
+        if (toX < 0 || toX > 7 || toY < 0 || toY > 7) return PackedMove.NONE;
+        int promo = 0;
+        if (piece.getType() == PieceType.PAWN && (toY == 0 || toY == 7)) {
+            promo = Position.QUEEN;
+        }
+        return getAnalysis().find(
+            Bitboards.square(piece.getXPos(), piece.getYPos()), Bitboards.square(toX, toY), promo);
     }
 
-    public void clearEnPassantTarget() {
-        enPassantTargetX = enPassantTargetY = -1;
-        enPassantVulnerablePawn = null;
+    /** True if {@code move} is one of the legal moves of the current position. */
+    public boolean isLegal(int move) {
+        return getAnalysis().contains(move);
     }
 
-    public int getEnPassantTargetX() { return enPassantTargetX; }
-    public int getEnPassantTargetY() { return enPassantTargetY; }
-    public ChessPiece getEnPassantVulnerablePawn() { return enPassantVulnerablePawn; }
+    /**
+     * Plays a move on both the piece list and the position, and appends it
+     * to the move history. The captured piece (en passant included) is
+     * removed, a castling rook follows its king and a promoted pawn is
+     * replaced. Side to move, castling rights, en passant and the Zobrist
+     * key are updated incrementally. Legality is not checked.
+     *
+     * @return the piece now standing on the destination square
+     */
+    public ChessPiece playMove(int move, List<ChessPiece> pieces) {
+        int from = PackedMove.from(move), to = PackedMove.to(move);
+        ChessPiece mover = pieceAt(pieces, from);
+        if (mover == null || position.isEmpty(from)) {
+            throw new IllegalArgumentException("No piece to play " + PackedMove.toUci(move));
+        }
 
-    public void updateBoardState(List<ChessPiece> pieces) {
-        board = new ChessPiece[8][8];
+        if (PackedMove.isCapture(move)) {
+            int capSq = PackedMove.flag(move) == PackedMove.EN_PASSANT
+                ? Bitboards.square(Bitboards.file(to), Bitboards.rank(from)) : to;
+            pieces.remove(pieceAt(pieces, capSq));
+        }
+        if (PackedMove.flag(move) == PackedMove.CASTLE) {
+            boolean kingside = to > from;
+            ChessPiece rook = pieceAt(pieces, kingside ? from + 3 : from - 4);
+            if (rook != null) rook.setPosition(Bitboards.file(kingside ? from + 1 : from - 1), Bitboards.rank(from));
+        }
+
+        mover.setPosition(Bitboards.file(to), Bitboards.rank(to));
+        if (PackedMove.isPromotion(move)) {
+            pieces.remove(mover);
+            mover = ChessPieceFactory.create(mover.getColor(), PieceType.of(PackedMove.promotion(move)),
+                Bitboards.file(to), Bitboards.rank(to));
+            mover.setHasMoved(true);
+            pieces.add(mover);
+        }
+
+        position.makeMove(move);
+        history.add(move);
+        analysisStale = true;
+        return mover;
+    }
+
+    private static ChessPiece pieceAt(List<ChessPiece> pieces, int sq) {
+        int x = Bitboards.file(sq), y = Bitboards.rank(sq);
         for (ChessPiece p : pieces) {
-            board[p.getXPos()][p.getYPos()] = p;
+            if (p.getXPos() == x && p.getYPos() == y) return p;
         }
+        return null;
+    }
+
+    /** Moves played so far, oldest first. Callers must not modify it. */
+    public MoveList getMoveHistory() {
+        return history;
+    }
+
+    /** Replaces position and move history with snapshots, e.g. from a memento. */
+    public void restore(Position snapshot, MoveList moves) {
+        position.copyFrom(snapshot);
+        history.copyFrom(moves);
+        analysisStale = true;
+    }
+
+    public Position getPosition() {
+        return position;
     }
 
-    public ChessPiece[][] getInternalBoard() {
-        return board;
+    /** Zobrist key of the current position. */
+    public long getPositionKey() {
+        return position.getKey();
     }
 
     public boolean isValidMove(ChessPiece piece, int destX, int destY, List<ChessPiece> pieces) {
@@ -68,18 +198,12 @@ public class GameLogic {
 
     public boolean isValidMove(ChessPiece piece, int destX, int destY,
                                List<ChessPiece> pieces, boolean ignoreTurn) {
-        updateBoardState(pieces);
-        int startX = piece.getXPos(), startY = piece.getYPos();
-
         if (destX < 0 || destX > 7 || destY < 0 || destY > 7) return false;
 
-        ChessPiece target = board[destX][destY];
-        if (target != null && target.getColor().equals(piece.getColor())) return false;
+        int color = piece.getColor().index();
+        if (position.colorAt(Bitboards.square(destX, destY)) == color) return false;
 
-        if (!ignoreTurn) {
-            if (whiteTurn && !piece.getColor().equals("white")) return false;
-            if (!whiteTurn && !piece.getColor().equals("black")) return false;
-        }
+        if (!ignoreTurn && color != position.getSideToMove()) return false;
 
         if (!pieceSpecificValidation(piece, destX, destY, pieces, ignoreTurn)) return false;
 
@@ -90,57 +214,69 @@ public class GameLogic {
 
     private boolean pieceSpecificValidation(ChessPiece piece, int x, int y,
                                             List<ChessPiece> pieces, boolean ignoreTurn) {
-        updateBoardState(pieces);
-        String type = piece.getType().toLowerCase();
-        IMoveValidator validator = validatorMap.get(type);
-        return validator != null && validator.isValid(piece, x, y, pieces, board, this);
+        IMoveValidator validator = VALIDATORS.get(piece.getType());
+        return validator != null && validator.isValid(piece, x, y, pieces, position, this);
     }
 
-    public boolean isSquareAttacked(int x, int y, String defender, List<ChessPiece> pieces) {
-        for (ChessPiece c : pieces) {
-            if (!c.getColor().equals(defender) && GameLogicHelper.canPieceAttackSquare(this, c, x, y, pieces))
-                return true;
-        }
-        return false;
+    public boolean isSquareAttacked(int x, int y, PieceColor defender, List<ChessPiece> pieces) {
+        if (x < 0 || y < 0) return false;
+        return position.isSquareAttacked(Bitboards.square(x, y), defender.opposite().index());
     }
 
-    public void toggleTurn() { whiteTurn = !whiteTurn; }
-    public boolean isWhiteTurn() { return whiteTurn; }
+    public boolean isWhiteTurn() { return position.getSideToMove() == Position.WHITE; }
+
+    public PieceColor getSideToMove() { return PieceColor.of(position.getSideToMove()); }
+
+    /**
+     * Replaces the contents of {@code out} with the legal moves of {@code p},
+     * taken from the cached {@link #getAnalysis() analysis}. Left empty
+     * when it is not that side's turn.
+     */
+    public void getPossibleMoves(ChessPiece p, MoveList out) {
+        out.clear();
+        if (p.getColor().index() != position.getSideToMove()) return;
 
-    public List<Move> getPossibleMoves(ChessPiece p, List<ChessPiece> pieces) {
-        List<Move> moves = new ArrayList<>();
-        for (int x = 0; x < 8; x++) for (int y = 0; y < 8; y++)
-            if (isValidMove(p, x, y, pieces))
-                moves.add(new Move(x, y));
-        return moves;
+        getAnalysis().movesFrom(Bitboards.square(p.getXPos(), p.getYPos()), out);
+        for (int i = out.size() - 1; i >= 0; i--) {
+            // under-promotions share the queen's destination square
+            int promo = PackedMove.promotion(out.get(i));
+            if (promo != 0 && promo != Position.QUEEN) out.removeAt(i);
+        }
     }
 
-    public boolean hasLegalMoves(String color, List<ChessPiece> pieces) {
-        for (ChessPiece p : pieces)
-            if (p.getColor().equals(color) && !getPossibleMoves(p, pieces).isEmpty())
-                return true;
-        return false;
+    public boolean hasLegalMoves(PieceColor color, List<ChessPiece> pieces) {
+        int side = color.index();
+        int sideToMove = position.getSideToMove();
+        if (side == sideToMove) {
+            return !getAnalysis().getLegalMoves().isEmpty();
+        }
+        // asked about the side not on move: borrow the turn, then hand it back
+        int ep = position.getEpSquare();
+        position.setEpSquare(Position.NO_SQUARE);
+        position.setSideToMove(side);
+        MoveGenerator.generateLegal(position, legalMoves);
+        position.setSideToMove(sideToMove);
+        position.setEpSquare(ep);
+        return !legalMoves.isEmpty();
     }
 
-    public boolean isCheckmate(String color, List<ChessPiece> pieces) {
-        return isSquareAttacked(GameLogicHelper.findKingX(color, pieces),
-            GameLogicHelper.findKingY(color, pieces),
-            color, pieces)
-            && !hasLegalMoves(color, pieces);
+    public boolean isCheckmate(PieceColor color, List<ChessPiece> pieces) {
+        if (color.index() == position.getSideToMove()) {
+            return getAnalysis().getStatus() == PositionAnalysis.Status.CHECKMATE;
+        }
+        return position.isInCheck(color.index()) && !hasLegalMoves(color, pieces);
     }
 
-    public boolean isStalemate(String color, List<ChessPiece> pieces) {
-        return !isSquareAttacked(GameLogicHelper.findKingX(color, pieces),
-            GameLogicHelper.findKingY(color, pieces),
-            color, pieces)
-            && !hasLegalMoves(color, pieces);
+    public boolean isStalemate(PieceColor color, List<ChessPiece> pieces) {
+        if (color.index() == position.getSideToMove()) {
+            return getAnalysis().getStatus() == PositionAnalysis.Status.STALEMATE;
+        }
+        return !position.isInCheck(color.index()) && !hasLegalMoves(color, pieces);
     }
 
     public void reset() {
-        board = new ChessPiece[8][8];
-        whiteTurn = true;
-        enPassantTargetX = -1;
-        enPassantTargetY = -1;
-        enPassantVulnerablePawn = null;
+        position.clear();
+        history.clear();
+        analysisStale = true;
     }
 }
@@ -1,6 +1,7 @@
 package com.mygdx.chess.logic;
 
 import com.mygdx.chess.actors.ChessPiece;
+import com.mygdx.chess.bitboard.Position;
 import java.util.List;
 
 /**
@@ -12,7 +13,7 @@ public interface IMoveValidator {
      * @param destX target column (0–7)
      * @param destY target row (0–7)
      * @param allPieces list of all pieces
-     * @param boardState current board[x][y] array
+     * @param position bitboard position synced with allPieces
      * @param logic GameLogic for context (e.g., en passant)
      * @return true if move is valid for this piece
      */
@@ -20,7 +21,7 @@ public interface IMoveValidator {
         ChessPiece piece,
         int destX, int destY,
         List<ChessPiece> allPieces,
-        ChessPiece[][] boardState,
+        Position position,
         GameLogic logic
     );
 }
@@ -1,6 +1,8 @@
 package com.mygdx.chess.logic;
 
 import com.mygdx.chess.actors.ChessPiece;
+import com.mygdx.chess.bitboard.Bitboards;
+import com.mygdx.chess.bitboard.Position;
 import java.util.List;
 
 /**
@@ -12,7 +14,7 @@ public class KingMoveValidator implements IMoveValidator {
         ChessPiece piece,
         int destX, int destY,
         List<ChessPiece> allPieces,
-        ChessPiece[][] boardState,
+        Position position,
         GameLogic logic
     ) {
         int startX = piece.getXPos();
@@ -27,29 +29,22 @@ public class KingMoveValidator implements IMoveValidator {
 
         // Castling: two-square horizontal move
         if (dx == 2 && dy == 0) {
-            // King must not have moved
-            if (piece.hasMoved()) return false;
+            int color = piece.getColor().index();
+            boolean kingside = destX > startX;
 
-            // Determine rook position
-            int rookX = (destX > startX) ? 7 : 0;
-
-            // Find the rook at rookX, startY
-            ChessPiece rook = findRook(allPieces, rookX, startY, piece.getColor());
-            if (rook == null || !"rook".equalsIgnoreCase(rook.getType()) || rook.hasMoved()) {
-                return false;
-            }
+            // King and the matching rook must both be unmoved
+            int right = (kingside ? Position.WHITE_KINGSIDE : Position.WHITE_QUEENSIDE) << (2 * color);
+            if ((position.getCastlingRights() & right) == 0) return false;
 
             // Check path clear between king and rook (exclusive)
-            int dir = (destX > startX) ? 1 : -1;
-            for (int x = startX + dir; x != rookX; x += dir) {
-                if (boardState[x][startY] != null) {
-                    return false;
-                }
-            }
+            int from = Bitboards.square(startX, startY);
+            int rook = Bitboards.square(kingside ? 7 : 0, startY);
+            if ((Bitboards.between(from, rook) & position.occupied()) != 0) return false;
 
             // Check that king is not in check on any square it passes or lands
+            int dir = kingside ? 1 : -1;
             for (int x = startX; x != destX + dir; x += dir) {
-                if (logic.isSquareAttacked(x, startY, piece.getColor(), allPieces)) {
+                if (position.isSquareAttacked(Bitboards.square(x, startY), color ^ 1)) {
                     return false;
                 }
             }
@@ -60,20 +55,4 @@ public class KingMoveValidator implements IMoveValidator {
         // All other moves invalid
         return false;
     }
-
-    /**
-     * Locates a rook of the given color at the specified square.
-     */
-    private ChessPiece findRook(
-        List<ChessPiece> pieces,
-        int x, int y,
-        String color
-    ) {
-        for (ChessPiece p : pieces) {
-            if (p.getXPos() == x && p.getYPos() == y && color.equalsIgnoreCase(p.getColor())) {
-                return p;
-            }
-        }
-        return null;
-    }
 }
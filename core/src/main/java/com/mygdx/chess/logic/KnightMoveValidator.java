@@ -1,6 +1,7 @@
 package com.mygdx.chess.logic;
 
 import com.mygdx.chess.actors.ChessPiece;
+import com.mygdx.chess.bitboard.Position;
 import java.util.List;
 
 /**
@@ -12,7 +13,7 @@ public class KnightMoveValidator implements IMoveValidator {
         ChessPiece piece,
         int destX, int destY,
         List<ChessPiece> allPieces,
-        ChessPiece[][] boardState,
+        Position position,
         GameLogic logic
     ) {
         int dx = Math.abs(destX - piece.getXPos());
@@ -1,14 +0,0 @@
-package com.mygdx.chess.logic;
-
-/**
- * Represents a target square on the board.
- */
-public class Move {
-    public final int x;
-    public final int y;
-
-    public Move(int x, int y) {
-        this.x = x;
-        this.y = y;
-    }
-}
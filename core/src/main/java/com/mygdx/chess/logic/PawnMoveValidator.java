@@ -1,6 +1,8 @@
 package com.mygdx.chess.logic;
 
 import com.mygdx.chess.actors.ChessPiece;
+import com.mygdx.chess.bitboard.Bitboards;
+import com.mygdx.chess.bitboard.Position;
 import java.util.List;
 
 /**
@@ -12,41 +14,36 @@ public class PawnMoveValidator implements IMoveValidator {
         ChessPiece piece,
         int destX, int destY,
         List<ChessPiece> allPieces,
-        ChessPiece[][] boardState,
+        Position position,
         GameLogic logic
     ) {
         int startX = piece.getXPos();
         int startY = piece.getYPos();
-        String color = piece.getColor();
-        int dir = color.equals("white") ? 1 : -1;
+        int color = piece.getColor().index();
+        int dir = color == Position.WHITE ? 1 : -1;
+        int dest = Bitboards.square(destX, destY);
 
         // Single-step forward
         if (destX == startX && destY - startY == dir) {
-            return boardState[destX][destY] == null;
+            return position.isEmpty(dest);
         }
 
         // Double-step on first move
         if (destX == startX && destY - startY == 2 * dir) {
-            boolean firstMove = (color.equals("white") && startY == 1)
-                || (color.equals("black") && startY == 6);
+            boolean firstMove = startY == (color == Position.WHITE ? 1 : 6);
             return firstMove
-                && boardState[startX][startY + dir] == null
-                && boardState[destX][destY] == null;
+                && position.isEmpty(Bitboards.square(startX, startY + dir))
+                && position.isEmpty(dest);
         }
 
         // Diagonal capture / en passant
         if (Math.abs(destX - startX) == 1 && destY - startY == dir) {
-            ChessPiece target = boardState[destX][destY];
             // normal capture
-            if (target != null && !target.getColor().equals(color)) {
+            if (position.colorAt(dest) == (color ^ 1)) {
                 return true;
             }
             // en passant
-            if (target == null
-                && destX == logic.getEnPassantTargetX()
-                && destY == logic.getEnPassantTargetY()) {
-                return true;
-            }
+            return dest == position.getEpSquare() && position.isEmpty(dest);
         }
 
         return false;
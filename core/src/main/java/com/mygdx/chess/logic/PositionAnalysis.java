@@ -0,0 +1,120 @@
+package com.mygdx.chess.logic;
+
+import com.mygdx.chess.bitboard.Bitboards;
+import com.mygdx.chess.bitboard.MoveGenerator;
+import com.mygdx.chess.bitboard.MoveList;
+import com.mygdx.chess.bitboard.PackedMove;
+import com.mygdx.chess.bitboard.Position;
+
+import java.util.Arrays;
+
+/**
+ * Facts about the current position that input, rendering and the bot all
+ * need: legal moves grouped by origin square, whether the side to move is
+ * in check, and whether the game is over. Computed once per ply by
+ * {@link GameLogic#getAnalysis()} and reused until the next move.
+ * <p>
+ * Threefold repetition, the fifty-move rule and insufficient material end
+ * the game at once, without a claim; a mate on the last move still counts.
+ */
+public final class PositionAnalysis {
+
+    public enum Status {
+        ONGOING, CHECKMATE, STALEMATE,
+        THREEFOLD_REPETITION, FIFTY_MOVE_RULE, INSUFFICIENT_MATERIAL;
+
+        public boolean isDraw() { return this != ONGOING && this != CHECKMATE; }
+    }
+
+    private final MoveList generated = new MoveList();
+    // legal moves sorted by origin; those from sq are [start[sq], start[sq + 1])
+    private final int[] byOrigin = new int[MoveList.CAPACITY];
+    private final int[] start = new int[65];
+    private final long[] targets = new long[64];
+    private final int[] fill = new int[64];
+
+    private int sideToMove;
+    private int kingSquare;
+    private boolean inCheck;
+    private Status status = Status.ONGOING;
+
+    PositionAnalysis() { /* built by GameLogic */ }
+
+    void compute(Position position) {
+        MoveGenerator.generateLegal(position, generated);
+        int n = generated.size();
+
+        Arrays.fill(start, 0);
+        Arrays.fill(targets, 0L);
+        for (int i = 0; i < n; i++) {
+            int m = generated.get(i);
+            start[PackedMove.from(m) + 1]++;
+            targets[PackedMove.from(m)] |= Bitboards.bit(PackedMove.to(m));
+        }
+        for (int sq = 0; sq < 64; sq++) start[sq + 1] += start[sq];
+        System.arraycopy(start, 0, fill, 0, 64);
+        for (int i = 0; i < n; i++) {
+            int m = generated.get(i);
+            byOrigin[fill[PackedMove.from(m)]++] = m;
+        }
+
+        sideToMove = position.getSideToMove();
+        kingSquare = position.kingSquare(sideToMove);
+        inCheck = position.isInCheck(sideToMove);
+        if (n == 0) {
+            status = inCheck ? Status.CHECKMATE : Status.STALEMATE;
+        } else if (position.isInsufficientMaterial()) {
+            status = Status.INSUFFICIENT_MATERIAL;
+        } else if (position.repetitions() >= 2) {
+            status = Status.THREEFOLD_REPETITION;
+        } else if (position.getHalfmoveClock() >= 100) {
+            status = Status.FIFTY_MOVE_RULE;
+        } else {
+            status = Status.ONGOING;
+        }
+    }
+
+    /** All legal moves of the side to move. Callers must not modify it. */
+    public MoveList getLegalMoves() { return generated; }
+
+    public int getSideToMove()      { return sideToMove; }
+
+    /** @return square of the side to move's king, or {@link Position#NO_SQUARE} */
+    public int getKingSquare()      { return kingSquare; }
+
+    public boolean isInCheck()      { return inCheck; }
+
+    public Status getStatus()       { return status; }
+
+    public boolean isGameOver()     { return status != Status.ONGOING; }
+
+    /** Destination squares of the legal moves starting on {@code from}. */
+    public long targets(int from)   { return targets[from]; }
+
+    /** Replaces the contents of {@code out} with the legal moves starting on {@code from}. */
+    public void movesFrom(int from, MoveList out) {
+        out.clear();
+        for (int i = start[from]; i < start[from + 1]; i++) out.add(byOrigin[i]);
+    }
+
+    /**
+     * @param promotion piece type for pawns reaching the last rank, 0 otherwise
+     * @return the legal move matching the squares, or {@link PackedMove#NONE}
+     */
+    public int find(int from, int to, int promotion) {
+        if ((targets[from] & Bitboards.bit(to)) == 0) return PackedMove.NONE;
+        for (int i = start[from]; i < start[from + 1]; i++) {
+            int m = byOrigin[i];
+            if (PackedMove.to(m) == to && PackedMove.promotion(m) == promotion) return m;
+        }
+        return PackedMove.NONE;
+    }
+
+    public boolean contains(int move) {
+        int from = PackedMove.from(move);
+        for (int i = start[from]; i < start[from + 1]; i++) {
+            if (byOrigin[i] == move) return true;
+        }
+        return false;
+    }
+}
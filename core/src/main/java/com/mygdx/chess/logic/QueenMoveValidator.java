@@ -1,6 +1,7 @@
 package com.mygdx.chess.logic;
 
 import com.mygdx.chess.actors.ChessPiece;
+import com.mygdx.chess.bitboard.Position;
 import java.util.List;
 
 /**
@@ -15,10 +16,10 @@ public class QueenMoveValidator implements IMoveValidator {
         ChessPiece piece,
         int destX, int destY,
         List<ChessPiece> allPieces,
-        ChessPiece[][] boardState,
+        Position position,
         GameLogic logic
     ) {
-        return rookValidator.isValid(piece, destX, destY, allPieces, boardState, logic)
-            || bishopValidator.isValid(piece, destX, destY, allPieces, boardState, logic);
+        return rookValidator.isValid(piece, destX, destY, allPieces, position, logic)
+            || bishopValidator.isValid(piece, destX, destY, allPieces, position, logic);
     }
 }
@@ -1,6 +1,8 @@
 package com.mygdx.chess.logic;
 
 import com.mygdx.chess.actors.ChessPiece;
+import com.mygdx.chess.bitboard.Bitboards;
+import com.mygdx.chess.bitboard.Position;
 import java.util.List;
 
 /**
@@ -12,25 +14,12 @@ public class RookMoveValidator implements IMoveValidator {
         ChessPiece piece,
         int destX, int destY,
         List<ChessPiece> allPieces,
-        ChessPiece[][] boardState,
+        Position position,
         GameLogic logic
     ) {
-        int startX = piece.getXPos();
-        int startY = piece.getYPos();
-        if (startX != destX && startY != destY) {
-            return false;
-        }
-        int dx = Integer.compare(destX, startX);
-        int dy = Integer.compare(destY, startY);
-        int x = startX + dx;
-        int y = startY + dy;
-        while (x != destX || y != destY) {
-            if (boardState[x][y] != null) {
-                return false;
-            }
-            x += dx;
-            y += dy;
-        }
-        return true;
+        int from = Bitboards.square(piece.getXPos(), piece.getYPos());
+        int to   = Bitboards.square(destX, destY);
+        return (destX == piece.getXPos() || destY == piece.getYPos())
+            && (Bitboards.between(from, to) & position.occupied()) == 0;
     }
 }
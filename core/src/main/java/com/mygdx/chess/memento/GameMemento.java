@@ -1,28 +1,28 @@
 package com.mygdx.chess.memento;
 
 import com.mygdx.chess.actors.ChessPiece;
+import com.mygdx.chess.bitboard.Fen;
+import com.mygdx.chess.bitboard.MoveList;
+import com.mygdx.chess.bitboard.Position;
 
 import java.util.ArrayList;
 import java.util.List;
 
 public class GameMemento {
     private final List<ChessPiece> pieceSnapshot;
-    private final boolean whiteTurn;
-    private final int enPassantX, enPassantY;
-    private final ChessPiece enPassantPawn;
+    private final Position position;
+    private final MoveList moveHistory = new MoveList();
 
-    public GameMemento(List<ChessPiece> pieces, boolean whiteTurn,
-                       int enPassantX, int enPassantY, ChessPiece enPassantPawn) {
+    public GameMemento(List<ChessPiece> pieces, Position position, MoveList moveHistory) {
         // Deep clone pieces
         this.pieceSnapshot = new ArrayList<>();
         for (ChessPiece p : pieces) {
             this.pieceSnapshot.add(p.clone());
         }
 
-        this.whiteTurn = whiteTurn;
-        this.enPassantX = enPassantX;
-        this.enPassantY = enPassantY;
-        this.enPassantPawn = enPassantPawn != null ? enPassantPawn.clone() : null;
+        // Copy of the bitboards, side to move, castling, en passant, key and key history
+        this.position = new Position(position);
+        this.moveHistory.copyFrom(moveHistory);
     }
 
     public List<ChessPiece> getPieceSnapshot() {
@@ -34,19 +34,27 @@ public class GameMemento {
         return copy;
     }
 
-    public boolean isWhiteTurn() {
-        return whiteTurn;
+    /** Position snapshot; callers copy from it rather than keep it. */
+    public Position getPosition() {
+        return position;
+    }
+
+    /** Moves played up to the snapshot; callers copy from it rather than keep it. */
+    public MoveList getMoveHistory() {
+        return moveHistory;
     }
 
-    public int getEnPassantX() {
-        return enPassantX;
+    public boolean isWhiteTurn() {
+        return position.getSideToMove() == Position.WHITE;
     }
 
-    public int getEnPassantY() {
-        return enPassantY;
+    /** The saved position as FEN, e.g. for logging or sharing a game. */
+    public String getFen() {
+        return Fen.save(position);
     }
 
-    public ChessPiece getEnPassantPawn() {
-        return enPassantPawn != null ? enPassantPawn.clone() : null;
+    /** Zobrist key of the saved position. */
+    public long getPositionKey() {
+        return position.getKey();
     }
 }
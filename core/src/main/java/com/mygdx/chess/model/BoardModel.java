@@ -1,8 +1,9 @@
 package com.mygdx.chess.model;
 
 import com.mygdx.chess.actors.ChessPiece;
+import com.mygdx.chess.bitboard.Fen;
+import com.mygdx.chess.bitboard.MoveList;
 import com.mygdx.chess.logic.GameLogic;
-import com.mygdx.chess.logic.Move;
 import com.mygdx.chess.memento.GameMemento;
 
 import java.util.ArrayList;
@@ -14,22 +15,21 @@ import java.util.List;
 public class BoardModel implements IBoardModel {
     private final boolean flip;
     private final List<ChessPiece> pieces = new ArrayList<>();
-    private final GameLogic logic = GameLogic.getInstance();
-    private List<Move> possibleMoves = null;
+    private final GameLogic logic = new GameLogic();
+    private final MoveList possibleMoves = new MoveList();
 
     public BoardModel(boolean flip) {
         this.flip = flip;
-        GameLogic.getInstance().reset();
     }
 
     @Override
-    public List<Move> getPossibleMoves() {
+    public MoveList getPossibleMoves() {
         return possibleMoves;
     }
 
     @Override
-    public void setPossibleMoves(List<Move> moves) {
-        this.possibleMoves = moves;
+    public void clearPossibleMoves() {
+        possibleMoves.clear();
     }
 
     @Override
@@ -47,15 +47,14 @@ public class BoardModel implements IBoardModel {
         return flip;
     }
 
+    @Override
+    public String toFen() {
+        return Fen.save(logic.getPosition());
+    }
+
     @Override
     public GameMemento createMemento() {
-        return new GameMemento(
-            getPieces(),
-            logic.isWhiteTurn(),
-            logic.getEnPassantTargetX(),
-            logic.getEnPassantTargetY(),
-            logic.getEnPassantVulnerablePawn()
-        );
+        return new GameMemento(getPieces(), logic.getPosition(), logic.getMoveHistory());
     }
 
     @Override
@@ -63,15 +62,7 @@ public class BoardModel implements IBoardModel {
         pieces.clear();
         pieces.addAll(memento.getPieceSnapshot());
 
-        logic.updateBoardState(pieces); // Sync logic’s internal board
-        if (memento.isWhiteTurn() != logic.isWhiteTurn()) {
-            logic.toggleTurn(); // Fix turn
-        }
-
-        logic.setEnPassantTarget(
-            memento.getEnPassantX(),
-            memento.getEnPassantY(),
-            memento.getEnPassantPawn()
-        );
+        // Copy the saved position (and its Zobrist key) instead of rebuilding it
+        logic.restore(memento.getPosition(), memento.getMoveHistory());
     }
 }
@@ -3,8 +3,8 @@
 package com.mygdx.chess.model;
 
 import com.mygdx.chess.actors.ChessPiece;
+import com.mygdx.chess.bitboard.MoveList;
 import com.mygdx.chess.logic.GameLogic;
-import com.mygdx.chess.logic.Move;
 import com.mygdx.chess.memento.GameMemento;
 
 import java.util.List;
@@ -16,8 +16,12 @@ public interface IBoardModel {
     List<ChessPiece> getPieces();
     GameLogic getGameLogic();
     boolean isFlipped();
-    List<Move> getPossibleMoves();
-    void       setPossibleMoves(List<Move> moves);
+    /** Legal moves of the selected piece, for highlighting; empty when none is selected. */
+    MoveList getPossibleMoves();
+    void     clearPossibleMoves();
+
+    /** Current position as FEN, castling rights and move counters included. */
+    String toFen();
 
     GameMemento createMemento();
     void restoreMemento(GameMemento memento);
@@ -0,0 +1,39 @@
+package com.mygdx.chess.model;
+
+import com.mygdx.chess.bitboard.Position;
+
+import java.util.Locale;
+
+/**
+ * Side a piece belongs to. {@link #index()} matches the colour codes of
+ * {@link Position}.
+ */
+public enum PieceColor {
+    WHITE(Position.WHITE, "White"),
+    BLACK(Position.BLACK, "Black");
+
+    private final int index;
+    private final String displayName;
+    private final String assetName;
+
+    PieceColor(int index, String displayName) {
+        this.index = index;
+        this.displayName = displayName;
+        this.assetName = name().toLowerCase(Locale.ROOT);
+    }
+
+    /** Colour code used by {@link Position}. */
+    public int index()           { return index; }
+
+    public PieceColor opposite() { return this == WHITE ? BLACK : WHITE; }
+
+    /** Capitalised name shown to players and stored with results. */
+    public String displayName()  { return displayName; }
+
+    /** Lowercase name used in texture file names. */
+    public String assetName()    { return assetName; }
+
+    public static PieceColor of(int index) {
+        return index == Position.WHITE ? WHITE : BLACK;
+    }
+}
@@ -0,0 +1,57 @@
+package com.mygdx.chess.model;
+
+import com.mygdx.chess.bitboard.Position;
+
+import java.util.Locale;
+
+/**
+ * Kind of chess piece. {@link #index()} matches the piece type codes of
+ * {@link Position}, so a type converts to and from the bitboard side
+ * without any lookup.
+ */
+public enum PieceType {
+    PAWN(Position.PAWN, 'p'),
+    KNIGHT(Position.KNIGHT, 'n'),
+    BISHOP(Position.BISHOP, 'b'),
+    ROOK(Position.ROOK, 'r'),
+    QUEEN(Position.QUEEN, 'q'),
+    KING(Position.KING, 'k');
+
+    private static final PieceType[] BY_INDEX = values();
+
+    private final int index;
+    private final char uci;
+    private final String assetName;
+
+    PieceType(int index, char uci) {
+        this.index = index;
+        this.uci = uci;
+        this.assetName = name().toLowerCase(Locale.ROOT);
+    }
+
+    /** Piece type code used by {@link Position}. */
+    public int index()         { return index; }
+
+    /** Lowercase letter used in UCI promotions and FEN. */
+    public char uci()          { return uci; }
+
+    /** Lowercase name used in texture file names, e.g. "knight". */
+    public String assetName()  { return assetName; }
+
+    public static PieceType of(int index) {
+        return BY_INDEX[index];
+    }
+
+    /** @return the type for a letter such as 'q' or 'N', or null */
+    public static PieceType fromUci(char c) {
+        switch (Character.toLowerCase(c)) {
+            case 'p': return PAWN;
+            case 'n': return KNIGHT;
+            case 'b': return BISHOP;
+            case 'r': return ROOK;
+            case 'q': return QUEEN;
+            case 'k': return KING;
+            default:  return null;
+        }
+    }
+}
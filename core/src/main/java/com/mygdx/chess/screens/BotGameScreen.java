@@ -4,6 +4,7 @@ import com.badlogic.gdx.Gdx;
 import com.badlogic.gdx.Input;
 import com.badlogic.gdx.InputMultiplexer;
 import com.badlogic.gdx.Screen;
+import com.badlogic.gdx.files.FileHandle;
 import com.badlogic.gdx.graphics.GL20;
 import com.badlogic.gdx.graphics.OrthographicCamera;
 import com.badlogic.gdx.graphics.g2d.SpriteBatch;
@@ -12,29 +13,53 @@ import com.badlogic.gdx.scenes.scene2d.InputListener;
 import com.badlogic.gdx.scenes.scene2d.Stage;
 import com.badlogic.gdx.scenes.scene2d.ui.Dialog;
 import com.badlogic.gdx.scenes.scene2d.ui.Skin;
+import com.badlogic.gdx.utils.GdxRuntimeException;
 import com.badlogic.gdx.utils.viewport.ScreenViewport;
 import com.mygdx.chess.ChessGame;
 import com.mygdx.chess.actors.ChessPiece;
+import com.mygdx.chess.bitboard.MoveList;
+import com.mygdx.chess.bitboard.PackedMove;
+import com.mygdx.chess.bitboard.Position;
+import com.mygdx.chess.book.PolyglotBook;
+import com.mygdx.chess.book.PolyglotKeys;
 import com.mygdx.chess.decorator.HighlightDecorator;
+import com.mygdx.chess.endgame.Bitbases;
 import com.mygdx.chess.engine.ChessEngineAdapter;
+import com.mygdx.chess.engine.EnginePool;
+import com.mygdx.chess.engine.Futures;
+import com.mygdx.chess.engine.JavaEngineAdapter;
 import com.mygdx.chess.engine.StockfishAdapter;
+import com.mygdx.chess.engine.Uci;
 import com.mygdx.chess.factory.BoardModelFactory;
-import com.mygdx.chess.factory.ChessPieceFactory;
 import com.mygdx.chess.input.ChessInputProcessor;
 import com.mygdx.chess.logic.GameLogic;
+import com.mygdx.chess.logic.PositionAnalysis;
 import com.mygdx.chess.model.IBoardModel;
 import com.mygdx.chess.sound.SoundManager;
 import com.mygdx.chess.view.ChessRenderer;
 import com.mygdx.chess.view.IChessRenderer;
 import com.mygdx.chess.view.decorator.CheckDecoratorRenderer;
 
-import java.util.ArrayList;
-import java.util.Iterator;
+import java.io.IOException;
+import java.io.InputStream;
 import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
 
 import static com.mygdx.chess.screens.BotLevelScreen.Difficulty;
 
 public class BotGameScreen implements Screen {
+    // optional Polyglot opening book and the key table it is indexed with
+    private static final String BOOK      = "books/book.bin";
+    private static final String BOOK_KEYS = "books/polyglot-random64.txt";
+    // optional endgame tables, generated with ./gradlew :core:bitbases
+    private static final String BITBASES  = "bitbases";
+    private static final long MOVE_DELAY_MS   = 500;    // small delay for better UX
+    private static final long MOVE_TIMEOUT_MS = 30_000; // engine presumed hung after this
+
     private final ChessGame game;
     private final SpriteBatch batch;
     private final OrthographicCamera camera;
@@ -43,14 +68,25 @@ public class BotGameScreen implements Screen {
     private final GameLogic logic;
     private final boolean humanIsWhite;
     private final Difficulty difficulty;
-    private final ChessEngineAdapter engineAdapter;
+    // on loan from the game's pool while the screen is shown; null when returned
+    private CompletableFuture<EnginePool.Lease> engineLease;
+    private boolean configured;     // difficulty sent to the leased engine
+    private boolean promoting;      // PromotionScreen is up; the game, and the lease, go on after it
+    private final PolyglotBook book;
+    private final Random random = new Random();
 
     private Stage uiStage;
     private Skin skin;
     private Dialog confirmExitDialog;
 
-    private final List<String> moveHistory = new ArrayList<>();
     private boolean botThinking = false;
+    // the bot's move once requested; shown no earlier than moveShownAt (System.nanoTime)
+    private CompletableFuture<String> pendingMove;
+    private boolean pendingFromEngine;
+    private long moveShownAt;
+    // thinking on the human's time: the reply the engine expects, and its search for it
+    private String predictedReply;
+    private CompletableFuture<String> ponderMove;
 
     public BotGameScreen(ChessGame game, Difficulty difficulty, boolean humanIsWhite) {
         this.game         = game;
@@ -68,12 +104,65 @@ public class BotGameScreen implements Screen {
         initUI();            // setup Stage, Skin, Dialog + ESC listener
         hookInputs();        // combine UI and board input processors
 
-        engineAdapter = new StockfishAdapter(difficulty);
+        engineLease   = game.getEngines().lease();
+        book          = openBook();
+    }
+
+    /**
+     * Stockfish when its binary can be started, the built-in engine otherwise;
+     * the factory of {@link ChessGame#getEngines()}. The difficulty is set per
+     * game once leased.
+     */
+    public static ChessEngineAdapter createEngine() {
+        ChessEngineAdapter stockfish = new StockfishAdapter(Difficulty.MEDIUM);
         try {
-            engineAdapter.startEngine();
+            stockfish.startEngine();
+            return stockfish;
         } catch (Exception e) {
-            Gdx.app.error("BotGame", "Failed to initialize chess engine", e);
-            game.setScreen(new MainMenuScreen(game));
+            Gdx.app.log("BotGame", "Stockfish unavailable (" + e.getMessage() + "), using the built-in engine");
+            stockfish.stopEngine();
+        }
+        JavaEngineAdapter engine = new JavaEngineAdapter(Difficulty.MEDIUM);
+        engine.setBitbases(openBitbases());
+        engine.startEngine();
+        return engine;
+    }
+
+    /** Whichever endgame tables are installed, or null if none can be read. */
+    private static Bitbases openBitbases() {
+        FileHandle dir = Gdx.files.internal(BITBASES);
+        if (!dir.exists()) return null;
+        try {
+            return Bitbases.open(dir.file().toPath());
+        } catch (IOException | GdxRuntimeException e) {
+            Gdx.app.log("BotGame", "Endgame bitbases unavailable (" + e.getMessage() + ")");
+            return null;
+        }
+    }
+
+    /** The opening book when both of its files are installed, null otherwise. */
+    private static PolyglotBook openBook() {
+        FileHandle bookFile = Gdx.files.internal(BOOK);
+        FileHandle keysFile = Gdx.files.internal(BOOK_KEYS);
+        if (!bookFile.exists()) return null;
+        if (!keysFile.exists()) {
+            Gdx.app.log("BotGame", "Opening book unavailable (" + BOOK_KEYS + " is missing)");
+            return null;
+        }
+        try (InputStream in = keysFile.read()) {
+            return PolyglotBook.open(bookFile.file().toPath(), PolyglotKeys.load(in));
+        } catch (IOException | GdxRuntimeException e) {
+            Gdx.app.log("BotGame", "Opening book unavailable (" + e.getMessage() + ")");
+            return null;
+        }
+    }
+
+    /** Weaker bots stray further from the book's main lines; see {@link PolyglotBook#pick}. */
+    private static int bookWeightPower(Difficulty difficulty) {
+        switch (difficulty) {
+            case LOW:    return 0;
+            case MEDIUM: return 1;
+            default:     return 2;
         }
     }
 
@@ -129,23 +218,12 @@ public class BotGameScreen implements Screen {
     }
 
     /**
-     * Record a non-promotion move.
-     */
-    public void recordHumanMove(int fx, int fy, int tx, int ty) {
-        recordHumanMove(fx, fy, tx, ty, '\0');
-    }
-
-    /**
-     * Record a (possibly promoted) move into moveHistory.
+     * Lets the human choose the piece for {@code move}; the game resumes with
+     * {@link #applyPromotion}. The engine stays leased, and pondering, meanwhile.
      */
-    private void recordHumanMove(int fx, int fy, int tx, int ty, char promo) {
-        StringBuilder uci = new StringBuilder()
-            .append((char)('a' + fx))
-            .append((char)('1' + fy))
-            .append((char)('a' + tx))
-            .append((char)('1' + ty));
-        if (promo != '\0') uci.append(promo);
-        moveHistory.add(uci.toString());
+    public void choosePromotion(int move) {
+        promoting = true;
+        game.setScreen(new PromotionScreen(this, move));
     }
 
     // ——————— GAME LOOP ———————
@@ -165,198 +243,208 @@ public class BotGameScreen implements Screen {
         boolean botTurn = (whiteToMove && !humanIsWhite) || (!whiteToMove && humanIsWhite);
 
         if (botTurn && !botThinking) {
-            botThinking = true;
-            new Thread(this::thinkAndMove).start();
+            botThinking = requestBotMove();
+        }
+        if (pendingMove != null && pendingMove.isDone() && System.nanoTime() >= moveShownAt) {
+            finishBotMove();
         }
 
         uiStage.act(delta);
         uiStage.draw();
     }
 
-    private void thinkAndMove() {
-        try {
-            String moves = String.join(" ", moveHistory);
-            String bestMove = engineAdapter.getBestMove(moves);
-
-            if (bestMove != null && bestMove.length() >= 4) {
-                final String engineUCI = bestMove;
-                final int fx = engineUCI.charAt(0) - 'a';
-                final int fy = engineUCI.charAt(1) - '1';
-                final int tx = engineUCI.charAt(2) - 'a';
-                final int ty = engineUCI.charAt(3) - '1';
-                final boolean isPromo = engineUCI.length() == 5;
-                final char promC = isPromo ? engineUCI.charAt(4) : ' ';
-
-                Thread.sleep(500); // Small delay for better UX
-
-                Gdx.app.postRunnable(() -> {
-                    applyEngineMove(fx, fy, tx, ty, isPromo, promC, engineUCI);
-                    botThinking = false;
-                });
-            } else {
-                botThinking = false;
-            }
-        } catch (Exception e) {
-            Gdx.app.error("BotGame", "Bot thinking failed", e);
-            botThinking = false;
-        }
-    }
-
-    private void applyEngineMove(int fx, int fy, int tx, int ty, boolean isPromo, char promC, String engineUCI) {
-        List<ChessPiece> pieces = model.getPieces();
-        ChessPiece mover = findPieceAt(fx, fy);
-
-        // Handle castling first
-        if (mover != null && mover.getType().equalsIgnoreCase("king") && Math.abs(tx - fx) == 2) {
-            handleCastling(mover, fx, fy, tx, ty);
+    /**
+     * Asks the book, then the engine, for a move without waiting for the answer.
+     *
+     * @return false if the engine is not available yet
+     */
+    private boolean requestBotMove() {
+        CompletableFuture<String> pondered = resolvePonder();
+        if (pondered != null) {
+            pendingMove = Futures.orTimeout(pondered, MOVE_TIMEOUT_MS, TimeUnit.MILLISECONDS);
+            pendingFromEngine = true;
+            moveShownAt = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(MOVE_DELAY_MS);
+            return true;
         }
-
-        // Handle captures - must happen BEFORE the move is applied
-        ChessPiece capturedPiece;
-        if (mover != null) {
-            capturedPiece = handleCapture(mover, tx, ty, pieces);
+        int bookMove = book == null ? PackedMove.NONE : book.pick(logic.getPosition(), random, bookWeightPower(difficulty));
+        if (bookMove != PackedMove.NONE) {
+            pendingMove = CompletableFuture.completedFuture(PackedMove.toUci(bookMove));
+            pendingFromEngine = false;
         } else {
-            capturedPiece = null;
+            EnginePool.Lease engine = leasedEngine();
+            if (engine == null) return false;
+            String position = Uci.position(logic.getPosition(), logic.getMoveHistory());
+            pendingMove = Futures.orTimeout(engine.getBestMove(position), MOVE_TIMEOUT_MS, TimeUnit.MILLISECONDS);
+            pendingFromEngine = true;
         }
+        moveShownAt = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(MOVE_DELAY_MS);
+        return true;
+    }
 
-        // Now apply the move or promotion
-        if (mover != null) {
-            if (isPromo && promC != ' ') {
-                handlePromotion(mover, tx, ty, promC, pieces);
-            } else {
-                handleRegularMove(mover, fx, fy, tx, ty);
+    /**
+     * The ponder search, switched to a normal one, if the human played the
+     * predicted reply; otherwise it is stopped and null returned.
+     */
+    private CompletableFuture<String> resolvePonder() {
+        CompletableFuture<String> pondered = ponderMove;
+        String predicted = predictedReply;
+        ponderMove = null;
+        predictedReply = null;
+        if (pondered == null) return null;
+
+        // a promotion counts only with the predicted piece; the search goes on
+        // while the human picks it, as the lease outlives the PromotionScreen
+        MoveList history = logic.getMoveHistory();
+        boolean hit = history.size() > 0
+            && PackedMove.toUci(history.get(history.size() - 1)).equals(predicted);
+        EnginePool.Lease engine = leasedEngine();
+        if (hit && engine != null && !pondered.isCompletedExceptionally()) {
+            try {
+                engine.engine().ponderHit();
+                return pondered;
+            } catch (IOException e) {
+                Gdx.app.error("BotGame", "Could not confirm the predicted move", e);
             }
         }
-
-        // Important: Force a render update here to prevent visual glitches
-        Gdx.app.postRunnable(() -> {
-            if (capturedPiece != null) {
-                pieces.remove(capturedPiece);
-            }
-        });
-
-        // Record move and toggle turn
-        moveHistory.add(engineUCI);
-        logic.toggleTurn();
-
-        // Update decorators and check game state
-        updateDecoratorsAndGameState(pieces, mover, tx, ty, isPromo);
+        pondered.cancel(true);
+        return null;
     }
 
-    private ChessPiece handleCapture(ChessPiece mover, int tx, int ty, List<ChessPiece> pieces) {
-        // Regular capture
-        ChessPiece targetPiece = findPieceAt(tx, ty);
-        if (targetPiece != null && targetPiece != mover) {
-            SoundManager.playCapture();
-            return targetPiece;
+    /** Searches the human's expected reply until the human has moved; see {@link #resolvePonder()}. */
+    private void startPondering() {
+        if (engineLease == null || logic.getAnalysis().isGameOver()) return;
+        EnginePool.Lease engine = leasedEngine();
+        if (engine == null) return;
+        String reply = engine.engine().getExpectedReply();
+        if (reply == null) return;
+        int move;
+        try {
+            move = Uci.parseMove(logic.getPosition(), reply);
+        } catch (IllegalArgumentException e) {
+            return;
         }
+        if (move == PackedMove.NONE || !logic.isLegal(move)) return;
+
+        Position predicted = new Position(logic.getPosition());
+        predicted.makeMove(move);
+        MoveList line = new MoveList();
+        line.copyFrom(logic.getMoveHistory());
+        line.add(move);
+        predictedReply = reply;
+        ponderMove = engine.ponder(Uci.position(predicted, line));
+    }
 
-        // En passant capture
-        if (mover.getType().equalsIgnoreCase("pawn")) {
-            int epTargetX = logic.getEnPassantTargetX();
-            int epTargetY = logic.getEnPassantTargetY();
-            if (epTargetX == tx && epTargetY == ty) {
-                ChessPiece epPiece = findPieceAt(tx, mover.getYPos());
-                if (epPiece != null) {
-                    SoundManager.playCapture();
-                    return epPiece;
-                }
+    /** The engine once its lease has arrived and been set up, null until then. */
+    private EnginePool.Lease leasedEngine() {
+        if (engineLease == null) engineLease = game.getEngines().lease();
+        if (!engineLease.isDone()) return null;
+        try {
+            EnginePool.Lease lease = engineLease.join();
+            if (!configured) {
+                lease.engine().setDifficulty(difficulty);
+                configured = true;
             }
+            return lease;
+        } catch (CompletionException | IOException e) {
+            Gdx.app.error("BotGame", "No engine available", e);
+            engineLease = null; // ask again next frame
+            return null;
         }
-        return null;
     }
 
-    private void handleRegularMove(ChessPiece piece, int fx, int fy, int tx, int ty) {
-        piece.setPosition(tx, ty);
-        SoundManager.playMove();
-
-        // Update en passant status
-        if (piece.getType().equalsIgnoreCase("pawn")) {
-            if (Math.abs(ty - fy) == 2) {
-                logic.setEnPassantTarget(tx, (fy + ty) / 2, piece);
-            } else {
-                logic.clearEnPassantTarget();
-            }
-        } else {
-            logic.clearEnPassantTarget();
+    /** Returns the engine to the pool, stopping its search; leased again if the screen comes back. */
+    private void releaseEngine() {
+        if (pendingMove != null) pendingMove.cancel(true);
+        if (ponderMove != null) ponderMove.cancel(true);
+        pendingMove = null;
+        ponderMove = null;
+        predictedReply = null;
+        botThinking = false;
+        if (engineLease != null && !engineLease.cancel(false) && !engineLease.isCompletedExceptionally()) {
+            engineLease.join().close();
         }
+        engineLease = null;
+        configured = false;
     }
 
-
-
-    private void handleCastling(ChessPiece king, int fx, int fy, int tx, int ty) {
-        int rookFromX = (tx > fx) ? 7 : 0;
-        int rookToX = (tx > fx) ? fx + 1 : fx - 1;
-        ChessPiece rook = findPieceAt(rookFromX, fy);
-        if (rook != null && rook.getType().equalsIgnoreCase("rook")) {
-            rook.setPosition(rookToX, fy);
+    private void finishBotMove() {
+        CompletableFuture<String> done = pendingMove;
+        pendingMove = null;
+        try {
+            String bestMove = done.join();
+            if (bestMove != null) {
+                applyEngineMove(bestMove);
+                // the engine's prediction only follows its own move, not a book move
+                if (pendingFromEngine) startPondering();
+            }
+        } catch (CompletionException | CancellationException e) {
+            Gdx.app.error("BotGame", "Bot thinking failed", e);
         }
+        botThinking = false;
     }
 
+    private void applyEngineMove(String engineUCI) {
+        int move;
+        try {
+            move = Uci.parseMove(logic.getPosition(), engineUCI);
+        } catch (IllegalArgumentException e) {
+            move = PackedMove.NONE;
+        }
+        if (move == PackedMove.NONE || !logic.isLegal(move)) {
+            Gdx.app.error("BotGame", "Engine played an illegal move: " + engineUCI);
+            return;
+        }
 
+        // Captures, en passant, castling and promotion are all handled by the logic
+        ChessPiece moved = logic.playMove(move, model.getPieces());
+        if (PackedMove.isPromotion(move)) {
+            SoundManager.playPromote();
+        } else if (PackedMove.isCapture(move)) {
+            SoundManager.playCapture();
+        } else {
+            SoundManager.playMove();
+        }
 
-    private void handlePromotion(ChessPiece pawn, int tx, int ty, char promC, List<ChessPiece> pieces) {
-        pieces.remove(pawn);
-        pieces.add(new ChessPiece(pawn.getColor(), promTypeFromChar(promC), tx, ty));
-        logic.clearEnPassantTarget();
-        SoundManager.playPromote();
+        updateDecoratorsAndGameState(model.getPieces(), moved);
     }
 
-
-    private void updateDecoratorsAndGameState(List<ChessPiece> pieces, ChessPiece mover, int tx, int ty, boolean isPromo) {
+    private void updateDecoratorsAndGameState(List<ChessPiece> pieces, ChessPiece moved) {
         // Clear all decorators
         for (ChessPiece p : pieces) p.clearDecorators();
 
         // Highlight moved piece
-        ChessPiece moved = (mover != null && isPromo) ? findPieceAt(tx, ty) : mover;
-        if (moved != null) moved.addDecorator(new HighlightDecorator());
+        moved.addDecorator(new HighlightDecorator());
 
         // Check game end conditions
-        String next = logic.isWhiteTurn() ? "white" : "black";
-        if (logic.isCheckmate(next, pieces)) {
-            game.setScreen(new GameOverScreen(game, "Checkmate! " + (next.equals("white") ? "Black" : "White") + " wins.", (next.equals("white") ? "Black" : "White"), true, !humanIsWhite));
-        } else if (logic.isStalemate(next, pieces)) {
-            game.setScreen(new GameOverScreen(game, "Stalemate! The game is a draw.", "Stalemate", true, !humanIsWhite));
+        PositionAnalysis analysis = logic.getAnalysis();
+        if (analysis.isGameOver()) {
+            game.setScreen(new GameOverScreen(
+                game, analysis.getStatus(), logic.getSideToMove().opposite(), true, !humanIsWhite));
         }
     }
 
-    /** Applies a human-pawn promotion. */
-    public void applyPromotion(ChessPiece pawn, int fx, int fy, int tx, int ty, String newType) {
-        model.getPieces().remove(pawn);
-        model.getPieces().add(ChessPieceFactory.create(pawn.getColor(), newType, tx, ty));
-        logic.clearEnPassantTarget();
-        recordHumanMove(fx, fy, tx, ty, newType.toLowerCase().charAt(0));
-        logic.toggleTurn();
+    /** Plays a human pawn promotion once the piece has been chosen. */
+    public void applyPromotion(int move) {
+        promoting = false;
+        ChessPiece promoted = logic.playMove(move, model.getPieces());
+        updateDecoratorsAndGameState(model.getPieces(), promoted);
         botThinking = false;
         hookInputs();
     }
 
-    private ChessPiece findPieceAt(int x, int y) {
-        for (ChessPiece p : model.getPieces()) {
-            if (p.getXPos() == x && p.getYPos() == y) {
-                return p;
-            }
-        }
-        return null;
-    }
-
-    private String promTypeFromChar(char c) {
-        switch (c) {
-            case 'q': return "queen";
-            case 'r': return "rook";
-            case 'b': return "bishop";
-            case 'n': return "knight";
-            default:  return null;
-        }
-    }
-
     @Override
     public void resize(int width, int height) {
     }
     @Override
     public void show() {}
+    /**
+     * Screens are left without dispose(), so the engine goes back to the pool
+     * here; except for a promotion, after which this game continues.
+     */
     @Override
-    public void hide() {}
+    public void hide() {
+        if (!promoting) releaseEngine();
+    }
     @Override
     public void pause() {}
     @Override
@@ -365,7 +453,14 @@ public class BotGameScreen implements Screen {
     public void dispose() {
         batch.dispose();
         renderer.dispose();
-        engineAdapter.stopEngine();
+        releaseEngine();
+        if (book != null) {
+            try {
+                book.close();
+            } catch (IOException e) {
+                Gdx.app.error("BotGame", "Could not close the opening book", e);
+            }
+        }
 
         uiStage.dispose();
         skin.dispose();
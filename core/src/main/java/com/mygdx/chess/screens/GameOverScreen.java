@@ -15,12 +15,23 @@ import com.badlogic.gdx.utils.Align;
 import com.badlogic.gdx.utils.viewport.ScreenViewport;
 import com.mygdx.chess.ChessGame;
 import com.mygdx.chess.db.GameResultDAO;
+import com.mygdx.chess.logic.PositionAnalysis.Status;
+import com.mygdx.chess.model.PieceColor;
 
 public class GameOverScreen implements Screen {
     private final ChessGame game;
     private final Stage stage;
     private final Skin skin;
 
+    /**
+     * Ends a game whose position reached {@code status}.
+     *
+     * @param lastMover side that played the final move, the winner on checkmate
+     */
+    public GameOverScreen(ChessGame game, Status status, PieceColor lastMover, boolean vsBot, boolean botIsWhite) {
+        this(game, message(status, lastMover), result(status, lastMover), vsBot, botIsWhite);
+    }
+
     public GameOverScreen(ChessGame game, String message, String winner, boolean vsBot, boolean botIsWhite) {
         this.game  = game;
         this.stage = new Stage(new ScreenViewport());
@@ -80,6 +91,29 @@ public class GameOverScreen implements Screen {
         table.add(mainMenu).width(180).pad(5);
     }
 
+    private static String message(Status status, PieceColor lastMover) {
+        switch (status) {
+            case CHECKMATE:             return "Checkmate! " + lastMover.displayName() + " wins.";
+            case STALEMATE:             return "Stalemate! The game is a draw.";
+            case THREEFOLD_REPETITION:  return "Threefold repetition! The game is a draw.";
+            case FIFTY_MOVE_RULE:       return "Fifty moves without a capture or pawn move! The game is a draw.";
+            case INSUFFICIENT_MATERIAL: return "Insufficient material! The game is a draw.";
+            default: throw new IllegalArgumentException("Game is not over: " + status);
+        }
+    }
+
+    /** Value stored in the winner column of the game history. */
+    private static String result(Status status, PieceColor lastMover) {
+        switch (status) {
+            case CHECKMATE:             return lastMover.displayName();
+            case STALEMATE:             return "Stalemate";
+            case THREEFOLD_REPETITION:  return "Draw (repetition)";
+            case FIFTY_MOVE_RULE:       return "Draw (fifty-move rule)";
+            case INSUFFICIENT_MATERIAL: return "Draw (insufficient material)";
+            default: throw new IllegalArgumentException("Game is not over: " + status);
+        }
+    }
+
     @Override public void show()                     { Gdx.input.setInputProcessor(stage); }
     @Override public void render(float delta)         {
         Gdx.gl.glClearColor(0, 0, 0, 1);
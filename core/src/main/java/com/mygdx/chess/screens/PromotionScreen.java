@@ -12,8 +12,12 @@ import com.badlogic.gdx.scenes.scene2d.utils.ClickListener;
 import com.badlogic.gdx.scenes.scene2d.ui.TextButton;
 import com.mygdx.chess.ChessGame;
 import com.mygdx.chess.actors.ChessPiece;
+import com.mygdx.chess.bitboard.PackedMove;
+import com.mygdx.chess.decorator.HighlightDecorator;
 import com.mygdx.chess.logic.GameLogic;
+import com.mygdx.chess.logic.PositionAnalysis;
 import com.mygdx.chess.model.IBoardModel;
+import com.mygdx.chess.model.PieceType;
 import com.mygdx.chess.screens.BotGameScreen;
 import com.mygdx.chess.screens.GameScreen;
 import com.mygdx.chess.view.IChessRenderer;
@@ -27,29 +31,19 @@ public class PromotionScreen implements Screen {
     private final ChessGame      game;        // non-null in human mode
     private final IBoardModel    model;       // non-null in human mode
     private final IChessRenderer renderer;    // non-null in human mode
-    private final ChessPiece     pawn;
-    private final int            fx, fy, tx, ty;
+    private final int            move;        // packed pawn move, queen by default
     private final Stage          stage;
     private final Skin           skin;
 
     /**
      * Constructor for Bot-vs-Human promotion.
      */
-    public PromotionScreen(
-        BotGameScreen parent,
-        ChessPiece pawn,
-        int fx, int fy,
-        int tx, int ty
-    ) {
+    public PromotionScreen(BotGameScreen parent, int move) {
         this.botParent = parent;
         this.game      = null;
         this.model     = null;
         this.renderer  = null;
-        this.pawn      = pawn;
-        this.fx        = fx;
-        this.fy        = fy;
-        this.tx        = tx;
-        this.ty        = ty;
+        this.move      = move;
         this.stage     = new Stage();
         this.skin      = new Skin(Gdx.files.internal("skins/uiskin.json"));
         initUI();
@@ -62,19 +56,13 @@ public class PromotionScreen implements Screen {
         ChessGame game,
         IBoardModel model,
         IChessRenderer renderer,
-        ChessPiece pawn,
-        int fx, int fy,
-        int tx, int ty
+        int move
     ) {
         this.botParent = null;
         this.game      = game;
         this.model     = model;
         this.renderer  = renderer;
-        this.pawn      = pawn;
-        this.fx        = fx;
-        this.fy        = fy;
-        this.tx        = tx;
-        this.ty        = ty;
+        this.move      = move;
         this.stage     = new Stage();
         this.skin      = new Skin(Gdx.files.internal("skins/uiskin.json"));
         initUI();
@@ -93,10 +81,10 @@ public class PromotionScreen implements Screen {
         TextButton bishop = new TextButton("Bishop", skin);
         TextButton knight = new TextButton("Knight", skin);
 
-        queen.addListener(listener("queen"));
-        rook.addListener(listener("rook"));
-        bishop.addListener(listener("bishop"));
-        knight.addListener(listener("knight"));
+        queen.addListener(listener(PieceType.QUEEN));
+        rook.addListener(listener(PieceType.ROOK));
+        bishop.addListener(listener(PieceType.BISHOP));
+        knight.addListener(listener(PieceType.KNIGHT));
 
         table.add(queen).pad(10).row();
         table.add(rook).pad(10).row();
@@ -107,29 +95,32 @@ public class PromotionScreen implements Screen {
     /**
      * Creates a listener that handles promotion choice.
      */
-    private ClickListener listener(String pieceType) {
+    private ClickListener listener(PieceType pieceType) {
         return new ClickListener() {
             @Override public void clicked(InputEvent e, float x, float y) {
+                int promotion = PackedMove.withPromotion(move, pieceType.index());
                 if (botParent != null) {
-                    // Bot-vs-Human: delegate to BotGameScreen
-                    botParent.applyPromotion(pawn, fx, fy, tx, ty, pieceType);
+                    // Bot-vs-Human: delegate to BotGameScreen, back on screen
+                    // first so a promotion that ends the game can leave it
                     botParent.getGame().setScreen(botParent);
+                    botParent.applyPromotion(promotion);
                 } else {
                     // Human-vs-Human: apply directly
-                    // 1) replace pawn
-                    model.getPieces().remove(pawn);
-                    model.getPieces().add(
-                        new ChessPiece(pawn.getColor(), pieceType, tx, ty)
-                    );
-                    // 2) clear en passant
+                    // 1) play the promotion (replaces the pawn, toggles turn)
                     GameLogic logic = model.getGameLogic();
-                    logic.clearEnPassantTarget();
-                    // 3) toggle turn
-                    logic.toggleTurn();
-                    // 4) return to regular GameScreen
-                    game.setScreen(new GameScreen(
-                        game, model, renderer
-                    ));
+                    ChessPiece promoted = logic.playMove(promotion, model.getPieces());
+                    promoted.addDecorator(new HighlightDecorator());
+                    // 2) end the game, or return to regular GameScreen
+                    PositionAnalysis analysis = logic.getAnalysis();
+                    if (analysis.isGameOver()) {
+                        game.setScreen(new GameOverScreen(
+                            game, analysis.getStatus(), logic.getSideToMove().opposite(), false, false
+                        ));
+                    } else {
+                        game.setScreen(new GameScreen(
+                            game, model, renderer
+                        ));
+                    }
                 }
             }
         };
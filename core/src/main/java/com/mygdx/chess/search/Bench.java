@@ -0,0 +1,117 @@
+package com.mygdx.chess.search;
+
+import com.mygdx.chess.bitboard.Fen;
+import com.mygdx.chess.bitboard.PackedMove;
+import com.mygdx.chess.bitboard.Position;
+
+import java.util.EnumSet;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * Fixed-depth searches over a set of positions, reporting nodes, time and
+ * nodes per second. On one thread the node total is deterministic, so it
+ * doubles as a signature: a change that was meant to keep the search
+ * identical must not change it. With {@code --each} the bench is repeated
+ * with every {@link Search.Feature} switched off in turn, which shows what
+ * each technique saves.
+ *
+ * <pre>
+ * Bench [--depth N] [--threads N] [--disable FEATURE,...] [--each]
+ * </pre>
+ */
+public final class Bench {
+
+    private static final String[] POSITIONS = {
+        Fen.START,
+        "r1bqkbnr/1ppp1ppp/p1n5/1B2p3/4P3/5N2/PPPP1PPP/RNBQK2R w KQkq - 0 4",
+        "r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq - 0 1",
+        "r4rk1/1pp1qppp/p1np1n2/2b1p1B1/2B1P1b1/P1NP1N2/1PP1QPPP/R4RK1 w - - 0 10",
+        "2r3k1/p4p2/3Rp2p/1p2P1pK/8/1P4P1/P3Q2P/1q6 b - - 0 1",
+        "r1bq1rk1/pp2bppp/2n1pn2/3p4/2PP4/2N2N2/PP2BPPP/R2QKB1R w KQ - 0 8",
+        "8/2p5/3p4/KP5r/1R3p1k/8/4P1P1/8 w - - 0 1",
+        "8/8/4k3/3p4/3P4/4K3/8/8 w - - 0 1",
+        "6k1/5ppp/8/8/8/8/5PPP/3R2K1 w - - 0 1",
+    };
+
+    private Bench() { /* no-op */ }
+
+    /**
+     * Searches every bench position to {@code depth} with the given
+     * techniques switched off, starting each from an empty table.
+     *
+     * @return total nodes searched
+     */
+    public static long run(int depth, int threads, Set<Search.Feature> disabled, boolean verbose) {
+        TranspositionTable tt = new TranspositionTable(TranspositionTable.DEFAULT_MEGABYTES);
+        ParallelSearch search = new ParallelSearch(tt, threads);
+        for (Search.Feature feature : disabled) search.setEnabled(feature, false);
+        long allNodes = 0, allNanos = 0;
+        try {
+            for (String fen : POSITIONS) {
+                Position pos = Fen.load(fen);
+                tt.clear();
+                long start = System.nanoTime();
+                int move = search.search(pos, SearchLimits.depth(depth));
+                long nanos = System.nanoTime() - start;
+                allNodes += search.getNodes();
+                allNanos += nanos;
+                if (verbose) {
+                    System.out.println(String.format(Locale.ROOT, "%-5s %6d %,12d %s  %s",
+                        PackedMove.toUci(move), search.getScore(), search.getNodes(), rate(search.getNodes(), nanos), fen));
+                }
+            }
+        } finally {
+            search.close();
+        }
+        System.out.println(String.format(Locale.ROOT, "%-28s %,12d nodes, %s",
+            disabled.isEmpty() ? "all techniques" : "without " + disabled, allNodes, rate(allNodes, allNanos)));
+        return allNodes;
+    }
+
+    private static String rate(long nodes, long nanos) {
+        long ms = Math.max(1, nanos / 1_000_000);
+        return String.format(Locale.ROOT, "%,d ms, %,d nps", ms, nodes * 1000 / ms);
+    }
+
+    public static void main(String[] args) {
+        int depth = 8, threads = 1;
+        Set<Search.Feature> disabled = EnumSet.noneOf(Search.Feature.class);
+        boolean each = false;
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "--depth":   depth = Integer.parseInt(args[++i]); break;
+                case "--threads": threads = Integer.parseInt(args[++i]); break;
+                case "--each":    each = true; break;
+                case "--disable":
+                    for (String name : args[++i].split(",")) {
+                        try {
+                            disabled.add(Search.Feature.valueOf(name.trim().toUpperCase(Locale.ROOT)));
+                        } catch (IllegalArgumentException e) {
+                            System.err.println("Unknown feature: " + name + ", expected one of "
+                                + EnumSet.allOf(Search.Feature.class));
+                            System.exit(2);
+                        }
+                    }
+                    break;
+                default:
+                    System.err.println("Unknown argument: " + args[i]);
+                    System.exit(2);
+            }
+        }
+        if (depth < 1 || depth >= Search.MAX_PLY || threads < 1) {
+            System.err.println("Depth must be between 1 and " + (Search.MAX_PLY - 1) + ", threads at least 1");
+            System.exit(2);
+        }
+
+        run(depth, threads, disabled, !each);
+        if (each) {
+            for (Search.Feature feature : Search.Feature.values()) {
+                if (disabled.contains(feature)) continue;
+                Set<Search.Feature> without = EnumSet.copyOf(disabled);
+                without.add(feature);
+                run(depth, threads, without, false);
+            }
+        }
+    }
+}
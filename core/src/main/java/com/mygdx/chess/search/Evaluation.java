@@ -0,0 +1,281 @@
+package com.mygdx.chess.search;
+
+import com.mygdx.chess.bitboard.Attacks;
+import com.mygdx.chess.bitboard.Bitboards;
+import com.mygdx.chess.bitboard.Position;
+
+/**
+ * Default {@link Evaluator}: material, piece-square tables, pawn structure
+ * and king shelter, each scored separately for the middlegame and the
+ * endgame and blended by how much material is left. Both halves are packed
+ * into one int (see {@link #score}) so they are summed together.
+ * <p>
+ * Material and piece-square scores are not recomputed here: the packed
+ * table is installed into the {@link Position}, which keeps its sum up to
+ * date on every make and unmake. Pawn structure only changes when pawns
+ * move, so its scores are kept in a {@link PawnHashTable} under the pawn
+ * key; king shelter caches its last result.
+ */
+public final class Evaluation implements Evaluator {
+
+    /** Middlegame piece values, also used to order captures. */
+    public static final int[] PIECE_VALUES = {100, 320, 330, 500, 900, 0};
+
+    private static final int[] ENDGAME_VALUES = {120, 300, 320, 530, 950, 0};
+
+    // tables are written as seen from white, rank 8 first;
+    // white pieces index them with sq ^ 56, black pieces with sq
+    private static final int[][] MIDDLEGAME_TABLES = {
+        { // pawn
+             0,  0,  0,  0,  0,  0,  0,  0,
+            50, 50, 50, 50, 50, 50, 50, 50,
+            10, 10, 20, 30, 30, 20, 10, 10,
+             5,  5, 10, 25, 25, 10,  5,  5,
+             0,  0,  0, 20, 20,  0,  0,  0,
+             5, -5,-10,  0,  0,-10, -5,  5,
+             5, 10, 10,-20,-20, 10, 10,  5,
+             0,  0,  0,  0,  0,  0,  0,  0 },
+        { // knight
+           -50,-40,-30,-30,-30,-30,-40,-50,
+           -40,-20,  0,  0,  0,  0,-20,-40,
+           -30,  0, 10, 15, 15, 10,  0,-30,
+           -30,  5, 15, 20, 20, 15,  5,-30,
+           -30,  0, 15, 20, 20, 15,  0,-30,
+           -30,  5, 10, 15, 15, 10,  5,-30,
+           -40,-20,  0,  5,  5,  0,-20,-40,
+           -50,-40,-30,-30,-30,-30,-40,-50 },
+        { // bishop
+           -20,-10,-10,-10,-10,-10,-10,-20,
+           -10,  0,  0,  0,  0,  0,  0,-10,
+           -10,  0,  5, 10, 10,  5,  0,-10,
+           -10,  5,  5, 10, 10,  5,  5,-10,
+           -10,  0, 10, 10, 10, 10,  0,-10,
+           -10, 10, 10, 10, 10, 10, 10,-10,
+           -10,  5,  0,  0,  0,  0,  5,-10,
+           -20,-10,-10,-10,-10,-10,-10,-20 },
+        { // rook
+             0,  0,  0,  0,  0,  0,  0,  0,
+             5, 10, 10, 10, 10, 10, 10,  5,
+            -5,  0,  0,  0,  0,  0,  0, -5,
+            -5,  0,  0,  0,  0,  0,  0, -5,
+            -5,  0,  0,  0,  0,  0,  0, -5,
+            -5,  0,  0,  0,  0,  0,  0, -5,
+            -5,  0,  0,  0,  0,  0,  0, -5,
+             0,  0,  0,  5,  5,  0,  0,  0 },
+        { // queen
+           -20,-10,-10, -5, -5,-10,-10,-20,
+           -10,  0,  0,  0,  0,  0,  0,-10,
+           -10,  0,  5,  5,  5,  5,  0,-10,
+            -5,  0,  5,  5,  5,  5,  0, -5,
+             0,  0,  5,  5,  5,  5,  0, -5,
+           -10,  5,  5,  5,  5,  5,  0,-10,
+           -10,  0,  5,  0,  0,  0,  0,-10,
+           -20,-10,-10, -5, -5,-10,-10,-20 },
+        { // king, middlegame
+           -30,-40,-40,-50,-50,-40,-40,-30,
+           -30,-40,-40,-50,-50,-40,-40,-30,
+           -30,-40,-40,-50,-50,-40,-40,-30,
+           -30,-40,-40,-50,-50,-40,-40,-30,
+           -20,-30,-30,-40,-40,-30,-30,-20,
+           -10,-20,-20,-20,-20,-20,-20,-10,
+            20, 20,  0,  0,  0,  0, 20, 20,
+            20, 30, 10,  0,  0, 10, 30, 20 }
+    };
+
+    private static final int[] KING_ENDGAME = {
+       -50,-40,-30,-20,-20,-30,-40,-50,
+       -30,-20,-10,  0,  0,-10,-20,-30,
+       -30,-10, 20, 30, 30, 20,-10,-30,
+       -30,-10, 30, 40, 40, 30,-10,-30,
+       -30,-10, 30, 40, 40, 30,-10,-30,
+       -30,-10, 20, 30, 30, 20,-10,-30,
+       -30,-30,  0,  0,  0,  0,-30,-30,
+       -50,-30,-30,-30,-30,-30,-30,-50
+    };
+
+    private static final int[][] ENDGAME_TABLES = {
+        { // pawn
+             0,  0,  0,  0,  0,  0,  0,  0,
+            40, 40, 40, 40, 40, 40, 40, 40,
+            25, 25, 25, 25, 25, 25, 25, 25,
+            15, 15, 15, 15, 15, 15, 15, 15,
+             8,  8,  8,  8,  8,  8,  8,  8,
+             3,  3,  3,  3,  3,  3,  3,  3,
+             0,  0,  0,  0,  0,  0,  0,  0,
+             0,  0,  0,  0,  0,  0,  0,  0 },
+        MIDDLEGAME_TABLES[Position.KNIGHT],
+        MIDDLEGAME_TABLES[Position.BISHOP],
+        new int[64], // rook
+        MIDDLEGAME_TABLES[Position.QUEEN],
+        KING_ENDGAME
+    };
+
+    // material left, in these units, decides the blend: 24 is a full middlegame
+    private static final int[] PHASE_WEIGHTS = {0, 1, 1, 2, 4, 0};
+    private static final int FULL_PHASE = 24;
+
+    private static final int DOUBLED  = score(-10, -20);
+    private static final int ISOLATED = score(-10, -15);
+    private static final int BACKWARD = score(-8, -10);
+    // by rank counted from the pawn's own side
+    private static final int[] PASSED = {
+        0, score(5, 10), score(10, 20), score(15, 35), score(25, 60), score(40, 90), score(60, 130), 0
+    };
+    // per own pawn in front of the king, and per open file next to it
+    private static final int SHELTER_PAWN = score(12, 0);
+    private static final int OPEN_FILE    = score(-20, 0);
+
+    /** Packed material and piece-square scores, white positive, by piece * 64 + square. */
+    private static final int[] PSQ = new int[12 * 64];
+
+    private static final long[] FILES = new long[8];
+    private static final long[] ADJACENT_FILES = new long[8];
+    // squares in front of a pawn on its own and the adjacent files
+    private static final long[][] PASSED_SPAN = new long[2][64];
+    // squares beside and behind a pawn on the adjacent files
+    private static final long[][] SUPPORT_SPAN = new long[2][64];
+    // the two ranks in front of a king on its own and the adjacent files
+    private static final long[][] SHELTER = new long[2][64];
+
+    static {
+        for (int type = Position.PAWN; type <= Position.KING; type++) {
+            for (int sq = 0; sq < 64; sq++) {
+                int mg = PIECE_VALUES[type] + MIDDLEGAME_TABLES[type][sq ^ 56];
+                int eg = ENDGAME_VALUES[type] + ENDGAME_TABLES[type][sq ^ 56];
+                PSQ[(Position.piece(Position.WHITE, type) << 6) | sq] = score(mg, eg);
+                mg = PIECE_VALUES[type] + MIDDLEGAME_TABLES[type][sq];
+                eg = ENDGAME_VALUES[type] + ENDGAME_TABLES[type][sq];
+                PSQ[(Position.piece(Position.BLACK, type) << 6) | sq] = -score(mg, eg);
+            }
+        }
+        for (int file = 0; file < 8; file++) FILES[file] = Bitboards.FILE_A << file;
+        for (int file = 0; file < 8; file++) {
+            ADJACENT_FILES[file] = (file > 0 ? FILES[file - 1] : 0L) | (file < 7 ? FILES[file + 1] : 0L);
+        }
+        for (int sq = 0; sq < 64; sq++) {
+            int file = Bitboards.file(sq), rank = Bitboards.rank(sq);
+            long around = FILES[file] | ADJACENT_FILES[file];
+            for (int r = 0; r < 8; r++) {
+                long row = Bitboards.RANK_1 << (8 * r);
+                if (r > rank) PASSED_SPAN[Position.WHITE][sq] |= around & row;
+                if (r < rank) PASSED_SPAN[Position.BLACK][sq] |= around & row;
+                if (r <= rank) SUPPORT_SPAN[Position.WHITE][sq] |= ADJACENT_FILES[file] & row;
+                if (r >= rank) SUPPORT_SPAN[Position.BLACK][sq] |= ADJACENT_FILES[file] & row;
+                if (r == rank + 1 || r == rank + 2) SHELTER[Position.WHITE][sq] |= around & row;
+                if (r == rank - 1 || r == rank - 2) SHELTER[Position.BLACK][sq] |= around & row;
+            }
+        }
+    }
+
+    private final PawnHashTable pawnTable;
+    // one-entry cache of the shelter, which only depends on pawns and kings
+    private final int[] cachedKing = {-1, -1};
+    private final long[] cachedShelterPawns = new long[2];
+    private final int[] cachedShelter = new int[2];
+
+    public Evaluation() {
+        this(new PawnHashTable(PawnHashTable.DEFAULT_MEGABYTES));
+    }
+
+    /** @param pawnTable pawn-structure cache, owned by this evaluator */
+    public Evaluation(PawnHashTable pawnTable) {
+        this.pawnTable = pawnTable;
+    }
+
+    public PawnHashTable getPawnTable() {
+        return pawnTable;
+    }
+
+    /** Packs a middlegame and an endgame score into one int; packed scores add up. */
+    public static int score(int middlegame, int endgame) {
+        return (middlegame << 16) + endgame;
+    }
+
+    public static int middlegame(int score) {
+        return (score + 0x8000) >> 16;
+    }
+
+    public static int endgame(int score) {
+        return (short) score;
+    }
+
+    @Override
+    public int evaluate(Position pos) {
+        if (pos.getPieceSquareTable() != PSQ) pos.setPieceSquareTable(PSQ);
+        int score = pos.getPieceSquareScore()
+            + pawnStructure(pos)
+            + shelter(pos, Position.WHITE) - shelter(pos, Position.BLACK);
+
+        int phase = Math.min(phase(pos), FULL_PHASE);
+        int blended = (middlegame(score) * phase + endgame(score) * (FULL_PHASE - phase)) / FULL_PHASE;
+        return pos.getSideToMove() == Position.WHITE ? blended : -blended;
+    }
+
+    private static int phase(Position pos) {
+        int phase = 0;
+        for (int type = Position.KNIGHT; type <= Position.QUEEN; type++) {
+            phase += PHASE_WEIGHTS[type]
+                * (pos.count(Position.piece(Position.WHITE, type)) + pos.count(Position.piece(Position.BLACK, type)));
+        }
+        return phase;
+    }
+
+    private int pawnStructure(Position pos) {
+        long key = pos.getPawnKey();
+        int score = pawnTable.probe(key);
+        if (score == PawnHashTable.MISS) {
+            long white = pos.pieces(Position.WHITE, Position.PAWN);
+            long black = pos.pieces(Position.BLACK, Position.PAWN);
+            score = pawns(Position.WHITE, white, black) - pawns(Position.BLACK, black, white);
+            pawnTable.store(key, score);
+        }
+        return score;
+    }
+
+    private static int pawns(int color, long own, long enemy) {
+        int score = 0;
+        for (int file = 0; file < 8; file++) {
+            int onFile = Bitboards.popCount(own & FILES[file]);
+            if (onFile > 1) score += DOUBLED * (onFile - 1);
+        }
+        long pawns = own;
+        while (pawns != 0) {
+            int sq = Bitboards.lsb(pawns);
+            pawns &= pawns - 1;
+            int file = Bitboards.file(sq);
+            if ((own & ADJACENT_FILES[file]) == 0) {
+                score += ISOLATED;
+            } else if ((own & SUPPORT_SPAN[color][sq]) == 0) {
+                // no neighbour can come level with it, and an enemy pawn guards its stop square
+                int stop = color == Position.WHITE ? sq + 8 : sq - 8;
+                if ((Attacks.pawn(color, stop) & enemy) != 0) score += BACKWARD;
+            }
+            if ((enemy & PASSED_SPAN[color][sq]) == 0) {
+                int rank = Bitboards.rank(sq);
+                score += PASSED[color == Position.WHITE ? rank : 7 - rank];
+            }
+        }
+        return score;
+    }
+
+    private int shelter(Position pos, int color) {
+        int king = pos.kingSquare(color);
+        long pawns = pos.pieces(color, Position.PAWN);
+        if (king != cachedKing[color] || pawns != cachedShelterPawns[color]) {
+            cachedKing[color] = king;
+            cachedShelterPawns[color] = pawns;
+            cachedShelter[color] = king == Position.NO_SQUARE ? 0 : shelter(color, king, pawns);
+        }
+        return cachedShelter[color];
+    }
+
+    private static int shelter(int color, int king, long pawns) {
+        long shield = pawns & SHELTER[color][king];
+        int score = SHELTER_PAWN * Bitboards.popCount(shield);
+        int file = Bitboards.file(king);
+        for (int f = Math.max(0, file - 1); f <= Math.min(7, file + 1); f++) {
+            if ((pawns & FILES[f]) == 0) score += OPEN_FILE;
+        }
+        return score;
+    }
+}
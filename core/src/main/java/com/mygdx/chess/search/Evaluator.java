@@ -0,0 +1,14 @@
+package com.mygdx.chess.search;
+
+import com.mygdx.chess.bitboard.Position;
+
+/**
+ * Static evaluation used at the leaves of a {@link Search}. Implementations
+ * may keep caches between calls, so each search thread gets its own
+ * instance; {@link Evaluation} is the default.
+ */
+public interface Evaluator {
+
+    /** Score of {@code pos} in centipawns from the side to move's point of view. */
+    int evaluate(Position pos);
+}
@@ -0,0 +1,154 @@
+package com.mygdx.chess.search;
+
+import com.mygdx.chess.bitboard.MoveList;
+import com.mygdx.chess.bitboard.Position;
+import com.mygdx.chess.endgame.Bitbases;
+
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Supplier;
+
+/**
+ * Lazy SMP: helper threads search the same root as the calling thread,
+ * with no limits of their own, and share one {@link TranspositionTable}.
+ * Their only output is the entries they leave in the table, which lets the
+ * main search cut off and order moves sooner and so get deeper in the same
+ * time. The calling thread applies the limits, stops the helpers when it is
+ * done and makes the final choice. Every other helper starts one ply deeper
+ * so the threads spread over different parts of the tree.
+ */
+public final class ParallelSearch {
+    private static final SearchLimits UNLIMITED = new SearchLimits(0, 0, 0);
+
+    private final TranspositionTable tt;
+    private final Search main;
+    private final Search[] helpers;
+    private final ExecutorService pool;
+    private final Future<?>[] running;
+
+    /** @param threads total search threads, the calling one included */
+    public ParallelSearch(TranspositionTable tt, int threads) {
+        this(tt, threads, Evaluation::new);
+    }
+
+    /** @param evaluators makes one evaluator per thread */
+    public ParallelSearch(TranspositionTable tt, int threads, Supplier<? extends Evaluator> evaluators) {
+        if (threads < 1) throw new IllegalArgumentException("Need at least one search thread: " + threads);
+        this.tt = tt;
+        this.main = new Search(tt, evaluators.get());
+        this.helpers = new Search[threads - 1];
+        for (int i = 0; i < helpers.length; i++) {
+            helpers[i] = new Search(tt, evaluators.get());
+            helpers[i].setFirstDepth(1 + (i & 1));
+        }
+        this.running = new Future<?>[helpers.length];
+        this.pool = helpers.length == 0 ? null : Executors.newFixedThreadPool(helpers.length, r -> {
+            Thread t = new Thread(r, "search-helper");
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    /** One search thread per available processor. */
+    public static int defaultThreads() {
+        return Runtime.getRuntime().availableProcessors();
+    }
+
+    /**
+     * Searches {@code root} on all threads until the calling thread reaches
+     * a limit; see {@link Search#search}.
+     */
+    public int search(Position root, SearchLimits limits) {
+        resetStop();
+        return run(root, limits);
+    }
+
+    /** Forgets a {@link #stop()} sent before now; see {@link #run}. */
+    public void resetStop() {
+        main.resetStop();
+    }
+
+    /**
+     * Like {@link #search} but honours a {@link #stop()} sent since the last
+     * {@link #resetStop()}, returning as soon as it has a move; so a stop
+     * cannot be lost between queueing a search and its start.
+     */
+    public int run(Position root, SearchLimits limits) {
+        tt.newSearch();
+        for (int i = 0; i < helpers.length; i++) {
+            Search helper = helpers[i];
+            helper.resetStop();
+            running[i] = pool.submit(() -> helper.run(root, UNLIMITED));
+        }
+        try {
+            return main.run(root, limits);
+        } finally {
+            for (Search helper : helpers) helper.stop();
+            awaitHelpers();
+        }
+    }
+
+    /** Switches a technique on or off in every thread from the next search on. */
+    public void setEnabled(Search.Feature feature, boolean enabled) {
+        main.setEnabled(feature, enabled);
+        for (Search helper : helpers) helper.setEnabled(feature, enabled);
+    }
+
+    /** Endgame tables for every thread from the next search on; null for none. */
+    public void setBitbases(Bitbases bitbases) {
+        main.setBitbases(bitbases);
+        for (Search helper : helpers) helper.setBitbases(bitbases);
+    }
+
+    /** Asks a running search to return as soon as possible. */
+    public void stop() {
+        main.stop();
+    }
+
+    /** Stops the helper threads for good. */
+    public void close() {
+        stop();
+        if (pool != null) pool.shutdownNow();
+    }
+
+    public int getThreads()        { return helpers.length + 1; }
+
+    public int getScore()          { return main.getScore(); }
+
+    public int getDepth()          { return main.getDepth(); }
+
+    /** Nodes searched by all threads together. */
+    public long getNodes() {
+        long nodes = main.getNodes();
+        for (Search helper : helpers) nodes += helper.getNodes();
+        return nodes;
+    }
+
+    public MoveList getPrincipalVariation() { return main.getPrincipalVariation(); }
+
+    public TranspositionTable getTranspositionTable() { return tt; }
+
+    /** Evaluator of the calling thread's search. */
+    public Evaluator getEvaluator() { return main.getEvaluator(); }
+
+    private void awaitHelpers() {
+        boolean interrupted = false;
+        for (int i = 0; i < running.length; i++) {
+            while (true) {
+                try {
+                    running[i].get();
+                    break;
+                } catch (InterruptedException e) {
+                    // the helpers stop within a few thousand nodes; finish waiting
+                    interrupted = true;
+                } catch (ExecutionException e) {
+                    throw new IllegalStateException("Search helper failed", e.getCause());
+                }
+            }
+            running[i] = null;
+        }
+        if (interrupted) Thread.currentThread().interrupt();
+    }
+}
@@ -0,0 +1,82 @@
+package com.mygdx.chess.search;
+
+import java.util.Arrays;
+
+/**
+ * Cache of pawn-structure scores keyed by {@link
+ * com.mygdx.chess.bitboard.Position#getPawnKey()}. Pawn structures repeat
+ * far more often than whole positions, so even a small table answers most
+ * lookups. Direct-mapped, one entry per slot, newest wins. Each evaluator
+ * owns its table, so there is no locking; its size is independent of the
+ * {@link TranspositionTable}.
+ */
+public final class PawnHashTable {
+    public static final int DEFAULT_MEGABYTES = 1;
+
+    /** Returned by {@link #probe} when the structure is not cached. */
+    public static final int MISS = Integer.MIN_VALUE;
+
+    private static final int ENTRY_BYTES = 16;
+
+    // pairs of (key, score)
+    private long[] table;
+    private int mask;
+    private long hits;
+    private long misses;
+
+    public PawnHashTable(int megabytes) {
+        resize(megabytes);
+    }
+
+    /** Reallocates the table to the largest power-of-two size within {@code megabytes}; drops all entries. */
+    public void resize(int megabytes) {
+        if (megabytes < 1) throw new IllegalArgumentException("Pawn hash size must be at least 1 MB: " + megabytes);
+        long entries = Math.min(Long.highestOneBit((long) megabytes * 1024 * 1024 / ENTRY_BYTES), 1 << 26);
+        table = new long[(int) entries * 2];
+        mask = (int) entries - 1;
+        clear();
+    }
+
+    public int sizeMegabytes() {
+        return (int) ((long) table.length * 8 / (1024 * 1024));
+    }
+
+    public void clear() {
+        // an empty slot reads as key 0 with score 0, which is right for the
+        // only structure with that key: no pawns at all
+        Arrays.fill(table, 0L);
+        resetStatistics();
+    }
+
+    /** @return the score stored for {@code pawnKey}, or {@link #MISS} */
+    public int probe(long pawnKey) {
+        int i = ((int) pawnKey & mask) << 1;
+        if (table[i] == pawnKey) {
+            hits++;
+            return (int) table[i + 1];
+        }
+        misses++;
+        return MISS;
+    }
+
+    public void store(long pawnKey, int score) {
+        int i = ((int) pawnKey & mask) << 1;
+        table[i] = pawnKey;
+        table[i + 1] = score;
+    }
+
+    public long getHits()   { return hits; }
+
+    public long getMisses() { return misses; }
+
+    /** Share of probes answered from the table, 0 before the first probe. */
+    public double hitRate() {
+        long probes = hits + misses;
+        return probes == 0 ? 0.0 : (double) hits / probes;
+    }
+
+    public void resetStatistics() {
+        hits = 0;
+        misses = 0;
+    }
+}
@@ -0,0 +1,461 @@
+package com.mygdx.chess.search;
+
+import com.mygdx.chess.bitboard.MoveGenerator;
+import com.mygdx.chess.bitboard.MoveList;
+import com.mygdx.chess.bitboard.PackedMove;
+import com.mygdx.chess.bitboard.Position;
+import com.mygdx.chess.endgame.Bitbases;
+
+import java.util.Arrays;
+import java.util.EnumSet;
+
+/**
+ * Iterative-deepening alpha-beta search over {@link MoveGenerator}, with
+ * a quiescence search of captures at the leaves so that exchanges are
+ * played out before a position is evaluated. Results are kept in a
+ * {@link TranspositionTable}, which cuts off positions already searched
+ * deeply enough and supplies the move to try first, across iterations and
+ * across consecutive searches. Leaves are scored by an {@link Evaluator}.
+ * <p>
+ * Beyond plain alpha-beta the search prunes with null moves, reduces late
+ * quiet moves, orders quiet moves by killer and history heuristics, and
+ * uses static exchange evaluation to put losing captures last and to drop
+ * them from the quiescence search. Each of these is a {@link Feature} that
+ * can be switched off to measure what it is worth (see {@link Bench}).
+ * <p>
+ * One instance searches on one thread at a time; {@link #stop()} may be
+ * called from any thread.
+ */
+public final class Search {
+    public static final int MAX_PLY  = 100;
+    public static final int INFINITY = 32000;
+    public static final int MATE     = 31000;
+    /** Scores at or beyond this magnitude announce a mate. */
+    public static final int MATE_BOUND = MATE - MAX_PLY;
+    public static final int DRAW     = 0;
+    /** Base score of a bitbase win, below any mate and above any evaluation. */
+    public static final int KNOWN_WIN = 10000;
+
+    /** Selective techniques that can be switched off for A/B testing. */
+    public enum Feature {
+        NULL_MOVE,
+        LATE_MOVE_REDUCTIONS,
+        KILLER_MOVES,
+        HISTORY,
+        STATIC_EXCHANGE
+    }
+
+    // ordering scores: hash move, winning captures and promotions, killers,
+    // quiet moves by history, losing captures
+    private static final int HASH_MOVE = 1 << 20;
+    private static final int TACTICAL  = 1 << 16;
+    private static final int KILLER    = TACTICAL - 2;
+    private static final int HISTORY_LIMIT = TACTICAL / 2;
+
+    private final TranspositionTable tt;
+    private final Evaluator evaluator;
+    private Bitbases bitbases;
+    private final Position pos = new Position();
+    private final MoveList[] moves = new MoveList[MAX_PLY + 1];
+    private final int[][] orderScores = new int[MAX_PLY + 1][MoveList.CAPACITY];
+    private final int[][] pv = new int[MAX_PLY + 1][MAX_PLY + 1];
+    private final int[] pvLength = new int[MAX_PLY + 1];
+    private final int[][] killers = new int[MAX_PLY + 1][2];
+    // by moving piece and target square; bumped by quiet moves that cut off
+    private final int[][] history = new int[12][64];
+
+    private final EnumSet<Feature> features = EnumSet.allOf(Feature.class);
+    private boolean nullMove, reductions, killerMoves, historyOrder, staticExchange;
+
+    private volatile boolean stopRequested;
+    private boolean stopped;
+    private long nodes;
+    private long nodeLimit;
+    private long deadline;
+
+    // helpers of a parallel search start at different depths to diverge
+    private int firstDepth = 1;
+
+    private int bestMove;
+    private int bestScore;
+    private int completedDepth;
+    private final MoveList principalVariation = new MoveList();
+
+    public Search() {
+        this(new TranspositionTable(TranspositionTable.DEFAULT_MEGABYTES));
+    }
+
+    /** @param tt table to read and fill; may be shared with other searches */
+    public Search(TranspositionTable tt) {
+        this(tt, new Evaluation());
+    }
+
+    /** @param evaluator leaf evaluation, not shared with other searches */
+    public Search(TranspositionTable tt, Evaluator evaluator) {
+        this.tt = tt;
+        this.evaluator = evaluator;
+        for (int i = 0; i < moves.length; i++) moves[i] = new MoveList();
+    }
+
+    /**
+     * Searches {@code root} until a limit is reached. The first iteration
+     * always completes, so a move is returned whenever one exists.
+     *
+     * @return the best move found, or {@link PackedMove#NONE} if the side
+     *         to move has no legal move
+     */
+    public int search(Position root, SearchLimits limits) {
+        stopRequested = false;
+        tt.newSearch();
+        return run(root, limits);
+    }
+
+    /** Like {@link #search} but honours a {@link #stop()} that arrived before it started. */
+    int run(Position root, SearchLimits limits) {
+        pos.copyFrom(root);
+        stopped = false;
+        nodes = 0;
+        nodeLimit = limits.getNodes() > 0 ? limits.getNodes() : Long.MAX_VALUE;
+        long start = System.nanoTime();
+        long budget = limits.getMoveTimeMillis() * 1_000_000L;
+        deadline = budget > 0 ? start + budget : Long.MAX_VALUE;
+        int maxDepth = limits.getDepth() > 0 ? Math.min(limits.getDepth(), MAX_PLY) : MAX_PLY;
+
+        bestMove = PackedMove.NONE;
+        bestScore = 0;
+        completedDepth = 0;
+        principalVariation.clear();
+        for (int[] k : killers) k[0] = k[1] = PackedMove.NONE;
+        for (int[] h : history) Arrays.fill(h, 0);
+
+        nullMove       = features.contains(Feature.NULL_MOVE);
+        reductions     = features.contains(Feature.LATE_MOVE_REDUCTIONS);
+        killerMoves    = features.contains(Feature.KILLER_MOVES);
+        historyOrder   = features.contains(Feature.HISTORY);
+        staticExchange = features.contains(Feature.STATIC_EXCHANGE);
+
+        MoveGenerator.generateLegal(pos, moves[0]);
+        if (moves[0].isEmpty()) return PackedMove.NONE;
+        if (moves[0].size() == 1) {
+            // nothing to choose from; don't spend the budget
+            bestMove = moves[0].get(0);
+            principalVariation.add(bestMove);
+            return bestMove;
+        }
+
+        for (int depth = Math.min(firstDepth, maxDepth); depth <= maxDepth; depth++) {
+            int score = alphaBeta(depth, 0, -INFINITY, INFINITY, false);
+            if (stopped) break;
+
+            bestMove = pv[0][0];
+            bestScore = score;
+            completedDepth = depth;
+            principalVariation.clear();
+            for (int i = 0; i < pvLength[0]; i++) principalVariation.add(pv[0][i]);
+
+            if (Math.abs(score) >= MATE_BOUND) break;
+            // the next iteration takes longer than all previous ones together
+            if (budget > 0 && System.nanoTime() - start > budget / 2) break;
+        }
+        return bestMove;
+    }
+
+    /** Asks a running search to return as soon as possible. */
+    public void stop() {
+        stopRequested = true;
+    }
+
+    void resetStop() {
+        stopRequested = false;
+    }
+
+    void setFirstDepth(int depth) {
+        firstDepth = depth;
+    }
+
+    /** Switches a technique on or off from the next search on; all are on by default. */
+    public void setEnabled(Feature feature, boolean enabled) {
+        if (enabled) {
+            features.add(feature);
+        } else {
+            features.remove(feature);
+        }
+    }
+
+    public boolean isEnabled(Feature feature) {
+        return features.contains(feature);
+    }
+
+    /** Score of the best move in centipawns, from the side to move's point of view. */
+    public int getScore()          { return bestScore; }
+
+    /** Deepest iteration that completed. */
+    public int getDepth()          { return completedDepth; }
+
+    public long getNodes()         { return nodes; }
+
+    public TranspositionTable getTranspositionTable() { return tt; }
+
+    public Evaluator getEvaluator() { return evaluator; }
+
+    /** Endgame tables to score covered positions exactly; null to search them normally. */
+    public void setBitbases(Bitbases bitbases) {
+        this.bitbases = bitbases;
+    }
+
+    public Bitbases getBitbases()  { return bitbases; }
+
+    /** Expected line of play, best move first. Callers must not modify it. */
+    public MoveList getPrincipalVariation() { return principalVariation; }
+
+    private int alphaBeta(int depth, int ply, int alpha, int beta, boolean nullAllowed) {
+        pvLength[ply] = ply;
+        if (ply > 0 && isDraw()) return DRAW;
+        // a won table position is still searched, to find the way to mate
+        if (ply > 0 && bitbases != null && bitbases.probe(pos) == Bitbases.DRAW) return DRAW;
+        if (ply >= MAX_PLY) return evaluate();
+
+        int us = pos.getSideToMove();
+        boolean inCheck = pos.isInCheck(us);
+        if (inCheck) depth++;
+        if (depth <= 0) return quiescence(ply, alpha, beta);
+
+        countNode();
+        if (stopped) return 0;
+
+        boolean pvNode = beta - alpha > 1;
+        long key = pos.getKey();
+        long entry = tt.probe(key);
+        int hashMove = PackedMove.NONE;
+        if (entry != 0) {
+            hashMove = TranspositionTable.move(entry);
+            // the root always searches, so there is a move and a PV to report
+            if (ply > 0 && TranspositionTable.depth(entry) >= depth) {
+                int score = TranspositionTable.scoreFromTable(TranspositionTable.score(entry), ply);
+                int bound = TranspositionTable.bound(entry);
+                if (bound == TranspositionTable.EXACT
+                    || (bound == TranspositionTable.LOWER && score >= beta)
+                    || (bound == TranspositionTable.UPPER && score <= alpha)) {
+                    return score;
+                }
+            }
+        }
+
+        // if passing still fails high, a real move would too; not tried twice in
+        // a row, nor with only pawns left, where passing may be the best move
+        if (nullMove && nullAllowed && !pvNode && !inCheck && depth >= 3
+            && Math.abs(beta) < MATE_BOUND && hasPieces(us)
+            && evaluate() >= beta) {
+            int r = depth >= 7 ? 3 : 2;
+            pos.makeNullMove();
+            int score = -alphaBeta(depth - 1 - r, ply + 1, -beta, -beta + 1, false);
+            pos.unmakeNullMove();
+            if (stopped) return 0;
+            // an unproven mate found by passing is not trusted
+            if (score >= beta) return score >= MATE_BOUND ? beta : score;
+        }
+
+        MoveList list = moves[ply];
+        MoveGenerator.generateLegal(pos, list);
+        if (list.isEmpty()) return inCheck ? -MATE + ply : DRAW;
+        scoreMoves(list, ply, hashMove);
+
+        int originalAlpha = alpha;
+        int best = -INFINITY;
+        int bestHere = PackedMove.NONE;
+        for (int i = 0; i < list.size(); i++) {
+            int move = pickNext(list, ply, i);
+            boolean quiet = !PackedMove.isCapture(move) && !PackedMove.isPromotion(move);
+            pos.makeMove(move);
+            int score;
+            if (i == 0) {
+                score = -alphaBeta(depth - 1, ply + 1, -beta, -alpha, true);
+            } else {
+                int reduction = 0;
+                if (reductions && quiet && i >= 3 && depth >= 3 && !inCheck
+                    && !isKiller(ply, move) && !pos.isInCheck(pos.getSideToMove())) {
+                    reduction = i >= 6 && depth >= 6 ? 2 : 1;
+                }
+                // later moves are expected to fail low: a null window proves it cheaply
+                score = -alphaBeta(depth - 1 - reduction, ply + 1, -alpha - 1, -alpha, true);
+                if (score > alpha && reduction > 0) {
+                    score = -alphaBeta(depth - 1, ply + 1, -alpha - 1, -alpha, true);
+                }
+                if (score > alpha && score < beta) {
+                    score = -alphaBeta(depth - 1, ply + 1, -beta, -alpha, true);
+                }
+            }
+            pos.unmakeMove(move);
+            if (stopped) return 0;
+
+            if (score > best) {
+                best = score;
+                bestHere = move;
+                if (score > alpha) {
+                    alpha = score;
+                    updatePv(ply, move);
+                    if (alpha >= beta) {
+                        if (quiet) rememberCutoff(ply, move, depth);
+                        break;
+                    }
+                }
+            }
+        }
+
+        int bound = best >= beta ? TranspositionTable.LOWER
+            : best > originalAlpha ? TranspositionTable.EXACT : TranspositionTable.UPPER;
+        // a fail-low has no reliable best move; keep whatever the table had
+        tt.store(key, bound == TranspositionTable.UPPER ? PackedMove.NONE : bestHere,
+            TranspositionTable.scoreToTable(best, ply), depth, bound);
+        return best;
+    }
+
+    private int quiescence(int ply, int alpha, int beta) {
+        pvLength[ply] = ply;
+        countNode();
+        if (stopped) return 0;
+        if (ply >= MAX_PLY) return evaluate();
+
+        MoveList list = moves[ply];
+        int best;
+        boolean inCheck = pos.isInCheck(pos.getSideToMove());
+        if (inCheck) {
+            // standing pat is not an option; every evasion is searched
+            MoveGenerator.generateLegal(pos, list);
+            if (list.isEmpty()) return -MATE + ply;
+            best = -INFINITY;
+        } else {
+            best = evaluate();
+            if (best >= beta) return best;
+            if (best > alpha) alpha = best;
+            MoveGenerator.generateCaptures(pos, list);
+        }
+        scoreMoves(list, ply, PackedMove.NONE);
+
+        for (int i = 0; i < list.size(); i++) {
+            int move = pickNext(list, ply, i);
+            // only captures that lose the exchange are left; standing pat beats them
+            if (!inCheck && orderScores[ply][i] < 0) break;
+            pos.makeMove(move);
+            int score = -quiescence(ply + 1, -beta, -alpha);
+            pos.unmakeMove(move);
+            if (stopped) return 0;
+
+            if (score > best) {
+                best = score;
+                if (score > alpha) {
+                    alpha = score;
+                    if (alpha >= beta) break;
+                }
+            }
+        }
+        return best;
+    }
+
+    /** Static score of the side to move: exact from the bitbases where they cover it. */
+    private int evaluate() {
+        if (bitbases != null) {
+            int result = bitbases.probe(pos);
+            if (result != Bitbases.UNKNOWN) return result * (KNOWN_WIN + Bitbases.progress(pos));
+        }
+        return evaluator.evaluate(pos);
+    }
+
+    private boolean isDraw() {
+        return pos.getHalfmoveClock() >= 100
+            || pos.repetitions() > 0
+            || pos.isInsufficientMaterial();
+    }
+
+    private void countNode() {
+        nodes++;
+        // never cut the first iteration short, so there is always a move
+        if (completedDepth == 0) return;
+        if (nodes >= nodeLimit) {
+            stopped = true;
+        } else if ((nodes & 1023) == 0 && (stopRequested || System.nanoTime() >= deadline)) {
+            stopped = true;
+        }
+    }
+
+    /**
+     * Hash move first, then captures by most valuable victim and least
+     * valuable attacker, killers, quiet moves by history and, when static
+     * exchange evaluation is on, captures that lose material last.
+     */
+    private void scoreMoves(MoveList list, int ply, int hashMove) {
+        int[] scores = orderScores[ply];
+        for (int i = 0; i < list.size(); i++) {
+            int m = list.get(i);
+            int score = 0;
+            if (m == hashMove) {
+                score = HASH_MOVE;
+            } else if (PackedMove.isCapture(m) || PackedMove.isPromotion(m)) {
+                score = TACTICAL - Position.typeOf(PackedMove.moved(m));
+                if (PackedMove.isCapture(m)) {
+                    score += 8 * Evaluation.PIECE_VALUES[Position.typeOf(PackedMove.captured(m))];
+                }
+                if (PackedMove.isPromotion(m)) {
+                    score += Evaluation.PIECE_VALUES[PackedMove.promotion(m)];
+                } else if (staticExchange && !StaticExchange.isAtLeast(pos, m, 0)) {
+                    score -= 2 * TACTICAL;
+                }
+            } else if (killerMoves && m == killers[ply][0]) {
+                score = KILLER + 1;
+            } else if (killerMoves && m == killers[ply][1]) {
+                score = KILLER;
+            } else if (historyOrder) {
+                score = history[PackedMove.moved(m)][PackedMove.to(m)];
+            }
+            scores[i] = score;
+        }
+    }
+
+    private boolean isKiller(int ply, int move) {
+        return killerMoves && (move == killers[ply][0] || move == killers[ply][1]);
+    }
+
+    /** Records a quiet move that caused a beta cutoff. */
+    private void rememberCutoff(int ply, int move, int depth) {
+        if (killerMoves && killers[ply][0] != move) {
+            killers[ply][1] = killers[ply][0];
+            killers[ply][0] = move;
+        }
+        if (historyOrder) {
+            int[] h = history[PackedMove.moved(move)];
+            h[PackedMove.to(move)] += depth * depth;
+            if (h[PackedMove.to(move)] >= HISTORY_LIMIT) {
+                // keep history below the killers, and let old cutoffs fade
+                for (int[] row : history) {
+                    for (int sq = 0; sq < 64; sq++) row[sq] >>= 1;
+                }
+            }
+        }
+    }
+
+    private boolean hasPieces(int color) {
+        return (pos.occupancy(color) & ~pos.pieces(color, Position.PAWN) & ~pos.pieces(color, Position.KING)) != 0;
+    }
+
+    /** Moves the best-scored of the remaining moves to {@code index} and returns it. */
+    private int pickNext(MoveList list, int ply, int index) {
+        int[] scores = orderScores[ply];
+        int best = index;
+        for (int i = index + 1; i < list.size(); i++) {
+            if (scores[i] > scores[best]) best = i;
+        }
+        if (best != index) {
+            list.swap(index, best);
+            int s = scores[index];
+            scores[index] = scores[best];
+            scores[best] = s;
+        }
+        return list.get(index);
+    }
+
+    private void updatePv(int ply, int move) {
+        pv[ply][ply] = move;
+        for (int i = ply + 1; i < pvLength[ply + 1]; i++) pv[ply][i] = pv[ply + 1][i];
+        pvLength[ply] = Math.max(pvLength[ply + 1], ply + 1);
+    }
+}
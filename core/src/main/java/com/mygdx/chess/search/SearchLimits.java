@@ -0,0 +1,24 @@
+package com.mygdx.chess.search;
+
+/**
+ * When a search has to stop: after a maximum depth, a node budget or a
+ * time budget, whichever comes first. Zero means no limit of that kind.
+ */
+public final class SearchLimits {
+    private final int depth;
+    private final long nodes;
+    private final long moveTimeMillis;
+
+    public SearchLimits(int depth, long nodes, long moveTimeMillis) {
+        this.depth = depth;
+        this.nodes = nodes;
+        this.moveTimeMillis = moveTimeMillis;
+    }
+
+    public static SearchLimits depth(int depth)         { return new SearchLimits(depth, 0, 0); }
+    public static SearchLimits moveTime(long millis)    { return new SearchLimits(0, 0, millis); }
+
+    public int getDepth()            { return depth; }
+    public long getNodes()           { return nodes; }
+    public long getMoveTimeMillis()  { return moveTimeMillis; }
+}
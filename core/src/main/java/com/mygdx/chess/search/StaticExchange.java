@@ -0,0 +1,78 @@
+package com.mygdx.chess.search;
+
+import com.mygdx.chess.bitboard.Attacks;
+import com.mygdx.chess.bitboard.Bitboards;
+import com.mygdx.chess.bitboard.PackedMove;
+import com.mygdx.chess.bitboard.Position;
+
+/**
+ * Static exchange evaluation: the material balance of all captures on a
+ * move's target square, each side recapturing with its least valuable
+ * attacker and free to stop when continuing would lose. Pinned pieces are
+ * treated as free to capture. Sliders hidden behind a capturing piece join
+ * in as it leaves the line.
+ */
+public final class StaticExchange {
+
+    // the king may only take last, so it is worth more than everything else
+    private static final int[] VALUES = {100, 320, 330, 500, 900, 20000};
+
+    private StaticExchange() { /* no-op */ }
+
+    /**
+     * True if {@code move} wins at least {@code threshold} centipawns once
+     * the exchange it starts is played out. Castling, en passant and
+     * promotions count as even trades.
+     */
+    public static boolean isAtLeast(Position pos, int move, int threshold) {
+        if (PackedMove.flag(move) != PackedMove.NORMAL || PackedMove.isPromotion(move)) return threshold <= 0;
+
+        int from = PackedMove.from(move), to = PackedMove.to(move);
+        int captured = PackedMove.captured(move);
+        // what we are left with if the opponent does not recapture
+        int swap = (captured == Position.EMPTY ? 0 : VALUES[Position.typeOf(captured)]) - threshold;
+        if (swap < 0) return false;
+        // what we are left with if they recapture and we stop
+        swap = VALUES[Position.typeOf(PackedMove.moved(move))] - swap;
+        if (swap <= 0) return true;
+
+        long occ = pos.occupied() ^ Bitboards.bit(from) ^ Bitboards.bit(to);
+        long attackers = pos.attackersTo(to, Position.WHITE, occ) | pos.attackersTo(to, Position.BLACK, occ);
+        long diagonal = pos.pieces(Position.WHITE, Position.BISHOP) | pos.pieces(Position.BLACK, Position.BISHOP)
+            | pos.pieces(Position.WHITE, Position.QUEEN) | pos.pieces(Position.BLACK, Position.QUEEN);
+        long straight = pos.pieces(Position.WHITE, Position.ROOK) | pos.pieces(Position.BLACK, Position.ROOK)
+            | pos.pieces(Position.WHITE, Position.QUEEN) | pos.pieces(Position.BLACK, Position.QUEEN);
+
+        int side = Position.colorOf(PackedMove.moved(move));
+        boolean result = true;
+        while (true) {
+            side ^= 1;
+            attackers &= occ;
+            long ours = attackers & pos.occupancy(side);
+            if (ours == 0) break;
+            result = !result;
+
+            int type = Position.PAWN;
+            long least = 0;
+            for (; type <= Position.KING; type++) {
+                least = ours & pos.pieces(side, type);
+                if (least != 0) break;
+            }
+            if (type == Position.KING) {
+                // the king can only take if nothing is left to take it back
+                return (attackers & ~pos.occupancy(side)) != 0 ? !result : result;
+            }
+            swap = VALUES[type] - swap;
+            if (swap < (result ? 1 : 0)) break;
+
+            occ ^= Bitboards.bit(Bitboards.lsb(least));
+            if (type == Position.PAWN || type == Position.BISHOP || type == Position.QUEEN) {
+                attackers |= Attacks.bishop(to, occ) & diagonal;
+            }
+            if (type == Position.ROOK || type == Position.QUEEN) {
+                attackers |= Attacks.rook(to, occ) & straight;
+            }
+        }
+        return result;
+    }
+}
@@ -0,0 +1,151 @@
+package com.mygdx.chess.search;
+
+import com.mygdx.chess.bitboard.PackedMove;
+
+import java.util.Arrays;
+
+/**
+ * Fixed-size hash table of search results, shared by any number of search
+ * threads without locks. Entries live in a flat {@code long[]} as pairs of
+ * {@code (key ^ data, data)}: a reader accepts an entry only if XOR-ing the
+ * two words gives back its key, so an entry torn by a concurrent write is
+ * simply treated as a miss.
+ * <p>
+ * Entries are grouped in buckets of four. A store replaces the entry of the
+ * same position, else the one left by the oldest search, else the
+ * shallowest. Call {@link #newSearch()} before each search and
+ * {@link #clear()} between games; clear and resize only while no search
+ * is running.
+ */
+public final class TranspositionTable {
+    public static final int UPPER = 1;
+    public static final int LOWER = 2;
+    public static final int EXACT = 3;
+
+    public static final int DEFAULT_MEGABYTES = 16;
+
+    private static final int BUCKET_SIZE = 4;
+    private static final int ENTRY_BYTES = 16;
+
+    // data word: move 0-24, score 25-40 (offset), depth 41-48, bound 49-50, age 51-58
+    private static final int SCORE_SHIFT = 25;
+    private static final int DEPTH_SHIFT = 41;
+    private static final int BOUND_SHIFT = 49;
+    private static final int AGE_SHIFT   = 51;
+    private static final int SCORE_OFFSET = 1 << 15;
+
+    private long[] table;
+    private int bucketMask;
+    private int age;
+
+    public TranspositionTable(int megabytes) {
+        resize(megabytes);
+    }
+
+    /** Reallocates the table to the largest power-of-two size within {@code megabytes}; drops all entries. */
+    public void resize(int megabytes) {
+        if (megabytes < 1) throw new IllegalArgumentException("Hash size must be at least 1 MB: " + megabytes);
+        long entries = Long.highestOneBit((long) megabytes * 1024 * 1024 / ENTRY_BYTES);
+        int buckets = (int) Math.min(entries / BUCKET_SIZE, 1 << 26);
+        table = new long[buckets * BUCKET_SIZE * 2];
+        bucketMask = buckets - 1;
+        age = 0;
+    }
+
+    public int sizeMegabytes() {
+        return (int) ((long) table.length * 8 / (1024 * 1024));
+    }
+
+    public void clear() {
+        Arrays.fill(table, 0L);
+        age = 0;
+    }
+
+    /** Marks entries stored from now on as newer than all previous ones. */
+    public void newSearch() {
+        age = (age + 1) & 0xFF;
+    }
+
+    /**
+     * @return the data word stored for {@code key}, or 0 if there is none;
+     *         decode it with the static accessors
+     */
+    public long probe(long key) {
+        long[] t = table;
+        int base = bucket(key);
+        for (int i = base; i < base + BUCKET_SIZE * 2; i += 2) {
+            long data = t[i + 1];
+            if ((t[i] ^ data) == key && data != 0) return data;
+        }
+        return 0L;
+    }
+
+    /**
+     * @param score search score, already adjusted with {@link #scoreToTable}
+     * @param bound {@link #UPPER}, {@link #LOWER} or {@link #EXACT}
+     */
+    public void store(long key, int move, int score, int depth, int bound) {
+        long[] t = table;
+        int base = bucket(key);
+        int victim = base;
+        int victimWorth = Integer.MAX_VALUE;
+        for (int i = base; i < base + BUCKET_SIZE * 2; i += 2) {
+            long data = t[i + 1];
+            if ((t[i] ^ data) == key) {
+                // same position: keep a deeper result from this search, but remember its move
+                if (bound != EXACT && age(data) == age && depth < depth(data) - 2) return;
+                if (move == PackedMove.NONE) move = move(data);
+                victim = i;
+                break;
+            }
+            // entries from older searches go first, then the shallowest
+            int worth = data == 0 ? Integer.MIN_VALUE
+                : depth(data) - (((age - age(data)) & 0xFF) << 8);
+            if (worth < victimWorth) {
+                victimWorth = worth;
+                victim = i;
+            }
+        }
+        long data = (move & 0x1FFFFFFL)
+            | (long) (score + SCORE_OFFSET) << SCORE_SHIFT
+            | (long) (depth & 0xFF) << DEPTH_SHIFT
+            | (long) bound << BOUND_SHIFT
+            | (long) age << AGE_SHIFT;
+        t[victim] = key ^ data;
+        t[victim + 1] = data;
+    }
+
+    /** Approximate fill rate in permille, from a sample of the table. */
+    public int hashfull() {
+        int used = 0, sampled = Math.min(1000, table.length / 2);
+        for (int i = 0; i < sampled; i++) {
+            long data = table[2 * i + 1];
+            if (data != 0 && age(data) == age) used++;
+        }
+        return used * 1000 / sampled;
+    }
+
+    public static int move(long data)  { return (int) (data & 0x1FFFFFF); }
+    public static int score(long data) { return (int) ((data >>> SCORE_SHIFT) & 0xFFFF) - SCORE_OFFSET; }
+    public static int depth(long data) { return (int) ((data >>> DEPTH_SHIFT) & 0xFF); }
+    public static int bound(long data) { return (int) ((data >>> BOUND_SHIFT) & 0x3); }
+    private static int age(long data)  { return (int) ((data >>> AGE_SHIFT) & 0xFF); }
+
+    /** Mate scores are stored as distance from the node rather than from the root. */
+    public static int scoreToTable(int score, int ply) {
+        if (score >= Search.MATE_BOUND) return score + ply;
+        if (score <= -Search.MATE_BOUND) return score - ply;
+        return score;
+    }
+
+    public static int scoreFromTable(int score, int ply) {
+        if (score >= Search.MATE_BOUND) return score - ply;
+        if (score <= -Search.MATE_BOUND) return score + ply;
+        return score;
+    }
+
+    private int bucket(long key) {
+        // low bits pick the bucket; the full key is verified on probe
+        return ((int) key & bucketMask) * BUCKET_SIZE * 2;
+    }
+}
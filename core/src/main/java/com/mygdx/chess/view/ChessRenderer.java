@@ -5,12 +5,12 @@ import com.badlogic.gdx.Preferences;
 import com.badlogic.gdx.graphics.Texture;
 import com.badlogic.gdx.graphics.g2d.SpriteBatch;
 import com.mygdx.chess.actors.ChessPiece;
-import com.mygdx.chess.logic.Move;
+import com.mygdx.chess.bitboard.Bitboards;
+import com.mygdx.chess.bitboard.MoveList;
+import com.mygdx.chess.bitboard.PackedMove;
 import com.mygdx.chess.model.IBoardModel;
 import com.mygdx.chess.proxy.TextureProxy;
 
-import java.util.List;
-
 import static com.mygdx.chess.util.BoardConfig.BOARD_SIZE;
 import static com.mygdx.chess.util.BoardConfig.SQUARE_SIZE;
 
@@ -48,12 +48,13 @@ public class ChessRenderer implements IChessRenderer {
         }
 
 
-        List<Move> moves = model.getPossibleMoves();
-        if (moves != null) {
+        MoveList moves = model.getPossibleMoves();
+        if (!moves.isEmpty()) {
             int d = 20;
-            for (Move m : moves) {
-                int mx = model.isFlipped() ? 7 - m.x : m.x;
-                int my = model.isFlipped() ? 7 - m.y : m.y;
+            for (int i = 0; i < moves.size(); i++) {
+                int to = PackedMove.to(moves.get(i));
+                int mx = model.isFlipped() ? 7 - Bitboards.file(to) : Bitboards.file(to);
+                int my = model.isFlipped() ? 7 - Bitboards.rank(to) : Bitboards.rank(to);
                 batch.draw(
                     dotTex,
                     mx * SQUARE_SIZE + (SQUARE_SIZE - d)/2f,
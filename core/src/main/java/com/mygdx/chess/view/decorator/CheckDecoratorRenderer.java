@@ -2,8 +2,9 @@ package com.mygdx.chess.view.decorator;
 
 import com.badlogic.gdx.graphics.g2d.SpriteBatch;
 import com.badlogic.gdx.graphics.glutils.ShapeRenderer;
-import com.mygdx.chess.actors.ChessPiece;
-import com.mygdx.chess.logic.GameLogic;
+import com.mygdx.chess.bitboard.Bitboards;
+import com.mygdx.chess.bitboard.Position;
+import com.mygdx.chess.logic.PositionAnalysis;
 import com.mygdx.chess.model.IBoardModel;
 import com.mygdx.chess.view.IChessRenderer;
 
@@ -28,19 +29,12 @@ public class CheckDecoratorRenderer extends ChessRendererDecorator {
         super.render(batch);
 
 
-        GameLogic logic = model.getGameLogic();
-        String toMove = logic.isWhiteTurn() ? "white" : "black";
-        ChessPiece king = null;
-        for (ChessPiece p : model.getPieces()) {
-            if ("king".equalsIgnoreCase(p.getType()) && toMove.equalsIgnoreCase(p.getColor())) {
-                king = p;
-                break;
-            }
-        }
-        if (king == null) return;
+        // cached per ply, so this costs nothing on frames between moves
+        PositionAnalysis analysis = model.getGameLogic().getAnalysis();
+        int king = analysis.getKingSquare();
+        if (king == Position.NO_SQUARE) return;
 
-        boolean inCheck = logic.isSquareAttacked(
-            king.getXPos(), king.getYPos(), king.getColor(), model.getPieces());
+        boolean inCheck = analysis.isInCheck();
 
 
         if (inCheck && !checkPlayed) {
@@ -54,8 +48,8 @@ public class CheckDecoratorRenderer extends ChessRendererDecorator {
 
 
         boolean flip = model.isFlipped();
-        int dx = flip ? 7 - king.getXPos() : king.getXPos();
-        int dy = flip ? 7 - king.getYPos() : king.getYPos();
+        int dx = flip ? 7 - Bitboards.file(king) : Bitboards.file(king);
+        int dy = flip ? 7 - Bitboards.rank(king) : Bitboards.rank(king);
         float x = dx * SQUARE_SIZE;
         float y = dy * SQUARE_SIZE;
 